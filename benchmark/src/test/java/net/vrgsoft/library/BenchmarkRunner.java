@@ -0,0 +1,72 @@
+package net.vrgsoft.library;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Minimal warm-up / measure loop reporting time and allocated bytes per operation.
+ * <p>
+ * Robolectric loads the library through its own sandbox class loader, which JMH forks can not
+ * reproduce, so the benchmarks run as plain unit tests on top of this loop instead.
+ */
+final class BenchmarkRunner {
+    private static final int DEFAULT_WARMUP = 200;
+    private static final int DEFAULT_ITERATIONS = 2000;
+
+    interface Operation {
+        void run(int iteration) throws Exception;
+    }
+
+    private BenchmarkRunner() {
+    }
+
+    static Result measure(String name, Operation operation) throws Exception {
+        return measure(name, DEFAULT_WARMUP, DEFAULT_ITERATIONS, operation);
+    }
+
+    static Result measure(String name, int warmup, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            operation.run(i);
+        }
+
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run(i);
+        }
+        long time = System.nanoTime() - startTime;
+        long bytes = allocatedBytes() - startBytes;
+
+        Result result = new Result(name, (double) time / iterations, bytes < 0 ? -1 : (double) bytes / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) return -1;
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) return -1;
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    static final class Result {
+        final String name;
+        final double nanosPerOperation;
+        final double bytesPerOperation;
+
+        Result(String name, double nanosPerOperation, double bytesPerOperation) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-48s %12.1f ns/op %12.1f B/op", name, nanosPerOperation, bytesPerOperation);
+        }
+    }
+}
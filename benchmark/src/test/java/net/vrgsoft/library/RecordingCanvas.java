@@ -0,0 +1,79 @@
+package net.vrgsoft.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+
+/**
+ * Canvas that only counts draw calls, so benchmarks measure the library instead of the
+ * Robolectric canvas shadow, which keeps a growing history of every call.
+ */
+class RecordingCanvas extends Canvas {
+    private final int width;
+    private final int height;
+
+    int circles;
+    int lines;
+    int bitmaps;
+    int paths;
+
+    RecordingCanvas(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public boolean getClipBounds(Rect bounds) {
+        bounds.set(0, 0, width, height);
+        return true;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        circles++;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        lines++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        paths++;
+    }
+
+    @Override
+    public int save() {
+        return 1;
+    }
+
+    @Override
+    public void restore() {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        bitmaps++;
+    }
+}
@@ -0,0 +1,251 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the indicator across render modes and point counts. Run with
+ * {@code ./gradlew :benchmark:testDebugUnitTest}, results are printed to the test output.
+ * <p>
+ * Frame and transition numbers go through the Robolectric looper and include its scheduling
+ * cost; compare them between runs and renderers rather than reading them as device numbers.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int FRAME_MILLIS = 16;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0} {1}/{2}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{
+                {"views", 2, 0},
+                {"views", 5, 0},
+                {"views", 8, 0},
+                {"canvas", 8, 0},
+                {"canvas", 100, 0},
+                {"canvas", 1000, 0},
+                {"canvas", 10000, 0},
+                {"canvas", 10000, 20},
+        });
+    }
+
+    private final String renderMode;
+    private final int pointsCount;
+    private final int visiblePointsCount;
+
+    private Activity activity;
+    private Slider slider;
+    private RecordingCanvas canvas;
+    private int position;
+
+    public SliderBenchmark(String renderMode, int pointsCount, int visiblePointsCount) {
+        this.renderMode = renderMode;
+        this.pointsCount = pointsCount;
+        this.visiblePointsCount = visiblePointsCount;
+    }
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MILLIS);
+        ShadowLooper.pauseMainLooper();
+
+        activity = Robolectric.setupActivity(Activity.class);
+        slider = createSlider();
+        activity.setContentView(slider, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        slider.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        slider.layout(0, 0, slider.getMeasuredWidth(), slider.getMeasuredHeight());
+        canvas = new RecordingCanvas(slider.getWidth(), slider.getHeight());
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    private Slider createSlider() {
+        return new Slider(activity, createAttributes());
+    }
+
+    private AttributeSet createAttributes() {
+        return Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.pointsCount, String.valueOf(pointsCount))
+                .addAttribute(R.attr.visiblePointsCount, String.valueOf(visiblePointsCount))
+                .addAttribute(R.attr.renderMode, renderMode)
+                .build();
+    }
+
+    private String name(String operation) {
+        return renderMode + " " + pointsCount + "/" + visiblePointsCount + " " + operation;
+    }
+
+    @Test
+    public void construct() throws Exception {
+        final AttributeSet attrs = createAttributes();
+        BenchmarkRunner.measure(name("construct"), 50, 500, new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                new Slider(activity, attrs);
+            }
+        });
+    }
+
+    @Test
+    public void drawFrame() throws Exception {
+        startTransition();
+        if (slider.getRenderMode() == Slider.RENDER_MODE_CANVAS) {
+            BenchmarkRunner.measure(name("Slider.onDraw"), new BenchmarkRunner.Operation() {
+                @Override
+                public void run(int iteration) {
+                    slider.onDraw(canvas);
+                }
+            });
+            return;
+        }
+
+        final SliderBgLine bgLine = findChild(SliderBgLine.class);
+        final SliderPoint point = findChild(SliderPoint.class);
+        BenchmarkRunner.measure(name("SliderBgLine.onDraw"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                bgLine.onDraw(canvas);
+            }
+        });
+        BenchmarkRunner.measure(name("SliderPoint.onDraw"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                point.onDraw(canvas);
+            }
+        });
+    }
+
+    @Test
+    public void animationFrame() throws Exception {
+        BenchmarkRunner.measure(name("frame"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                if (iteration % 64 == 0) {
+                    startTransition();
+                }
+                ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+                drawAll();
+            }
+        });
+    }
+
+    @Test
+    public void setCurrentPosition() throws Exception {
+        BenchmarkRunner.measure(name("setCurrentPosition"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                startTransition();
+            }
+        });
+    }
+
+    @Test
+    public void bind() throws Exception {
+        BenchmarkRunner.measure(name("bind"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                slider.bind(pointsCount, iteration % pointsCount);
+            }
+        });
+    }
+
+    @Test
+    public void scrub() throws Exception {
+        final float y = slider.getHeight() * 0.5f;
+        final MotionEvent[] moves = new MotionEvent[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            moves[i] = MotionEvent.obtain(0, 0, MotionEvent.ACTION_MOVE, (float) WIDTH * i / pointsCount, y, 0);
+        }
+        MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, y, 0);
+        slider.onTouchEvent(down);
+        down.recycle();
+
+        BenchmarkRunner.measure(name("scrub move"), new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                slider.onTouchEvent(moves[iteration % pointsCount]);
+                if (iteration % 4 == 0) {
+                    // several moves per frame, only the last one is applied
+                    ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+    }
+
+    @Test
+    public void transition() throws Exception {
+        final int frames = (int) (Slider.DEFAULT_ANIMATION_DURATION * 2 / FRAME_MILLIS) + 2;
+        BenchmarkRunner.measure(name("transition"), 10, 100, new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                startTransition();
+                for (int i = 0; i < frames; i++) {
+                    ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves to the other end of the slider and starts the animation, so every point is passed.
+     */
+    private void startTransition() {
+        position = position == 0 ? pointsCount - 1 : 0;
+        slider.setCurrentPosition(position);
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private void drawAll() {
+        if (slider.getRenderMode() == Slider.RENDER_MODE_CANVAS) {
+            slider.onDraw(canvas);
+            return;
+        }
+        for (int i = 0; i < slider.getChildCount(); i++) {
+            View child = slider.getChildAt(i);
+            if (child instanceof SliderPoint) {
+                ((SliderPoint) child).onDraw(canvas);
+            } else if (child instanceof SliderBgLine) {
+                ((SliderBgLine) child).onDraw(canvas);
+            }
+        }
+    }
+
+    private <T extends View> T findChild(Class<T> type) {
+        for (int i = 0; i < slider.getChildCount(); i++) {
+            View child = slider.getChildAt(i);
+            if (type.isInstance(child)) {
+                return type.cast(child);
+            }
+        }
+        throw new IllegalStateException("No " + type.getSimpleName() + " in slider");
+    }
+}
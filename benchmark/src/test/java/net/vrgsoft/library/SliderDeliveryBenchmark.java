@@ -0,0 +1,83 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a position change with a listener doing real work, called synchronously compared
+ * with delivered on an executor.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderDeliveryBenchmark {
+    private static final int LISTENER_WORK_MICROS = 200;
+
+    private Slider slider;
+    private QueueExecutor executor;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        slider = new Slider(activity);
+        executor = new QueueExecutor();
+    }
+
+    @Test
+    public void synchronousListener() throws Exception {
+        slider.setPointClickListener(new HeavyListener());
+        measureChanges("synchronous setCurrentPosition");
+    }
+
+    @Test
+    public void latestListener() throws Exception {
+        slider.addPointClickListener(new HeavyListener(), executor, Slider.DELIVERY_LATEST);
+        measureChanges("latest setCurrentPosition");
+    }
+
+    private void measureChanges(String name) throws Exception {
+        BenchmarkRunner.measure(name, new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                slider.setCurrentPosition(iteration % slider.getPointsCount());
+            }
+        });
+    }
+
+    private static class HeavyListener implements Slider.OnPointClickListener {
+        @Override
+        public void onPointClick(int position) {
+            long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(LISTENER_WORK_MICROS);
+            while (System.nanoTime() < end) {
+                // simulated prefetch
+            }
+        }
+    }
+
+    /**
+     * Runs submitted callbacks only when asked, like a busy background thread.
+     */
+    private static class QueueExecutor implements Executor {
+        private final ArrayList<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+}
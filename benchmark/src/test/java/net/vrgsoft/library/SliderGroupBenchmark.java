@@ -0,0 +1,121 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+import android.widget.LinearLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frame cost of a screen full of sliders of which only a few animate, each slider scheduling
+ * its own frames compared with one {@link SliderGroup} driving all of them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderGroupBenchmark {
+    private static final int FRAME_MILLIS = 16;
+    private static final int SLIDERS = 48;
+    private static final int ANIMATING = 2;
+
+    private Activity activity;
+    private Slider[] sliders;
+    private int position;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MILLIS);
+        ShadowLooper.pauseMainLooper();
+
+        activity = Robolectric.setupActivity(Activity.class);
+        LinearLayout layout = new LinearLayout(activity);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        sliders = new Slider[SLIDERS];
+        for (int i = 0; i < SLIDERS; i++) {
+            sliders[i] = new Slider(activity);
+            layout.addView(sliders[i]);
+        }
+        activity.setContentView(layout);
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void ungroupedFrame() throws Exception {
+        measureFrames("ungrouped " + ANIMATING + "/" + SLIDERS + " frame");
+    }
+
+    @Test
+    public void groupedFrame() throws Exception {
+        SliderGroup group = new SliderGroup();
+        for (Slider slider : sliders) {
+            slider.setGroup(group);
+        }
+        measureFrames("grouped " + ANIMATING + "/" + SLIDERS + " frame");
+
+        finishTransitions();
+        assertEquals(0, group.getActiveCount());
+        for (int i = 0; i < ANIMATING; i++) {
+            assertEquals(position, sliders[i].getTrackPosition(), 0);
+        }
+    }
+
+    @Test
+    public void grouped_idleSliderAnimatesToTarget() {
+        SliderGroup group = new SliderGroup();
+        Slider slider = sliders[0];
+        slider.setGroup(group);
+        slider.setCurrentPosition(2);
+
+        boolean midway = false;
+        for (int elapsed = 0; elapsed < Slider.DEFAULT_ANIMATION_DURATION * 4; elapsed += FRAME_MILLIS) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+            float track = slider.getTrackPosition();
+            midway |= track > 0 && track < 2;
+        }
+
+        assertTrue("no frame between the positions", midway);
+        assertEquals(2, slider.getTrackPosition(), 0);
+        assertEquals(0, group.getActiveCount());
+    }
+
+    private void measureFrames(String name) throws Exception {
+        BenchmarkRunner.measure(name, new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                if (iteration % 64 == 0) {
+                    startTransitions();
+                }
+                ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void startTransitions() {
+        position = position == 0 ? 2 : 0;
+        for (int i = 0; i < ANIMATING; i++) {
+            sliders[i].setCurrentPosition(position);
+        }
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private void finishTransitions() {
+        ShadowLooper.idleMainLooper(Slider.DEFAULT_ANIMATION_DURATION * 4, TimeUnit.MILLISECONDS);
+    }
+}
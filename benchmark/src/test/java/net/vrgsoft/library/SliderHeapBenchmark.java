@@ -0,0 +1,82 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+import android.util.AttributeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Retained heap per indicator for a screen of identically styled sliders, each with its own
+ * style parsed from the attributes versus one {@link SliderStyle} shared by all of them.
+ * <p>
+ * Robolectric keeps shadow state next to every view, so absolute numbers are higher than on a
+ * device; the difference between the two cases is what the shared style saves.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderHeapBenchmark {
+    private static final int SLIDERS_COUNT = 500;
+
+    private Activity activity;
+    private AttributeSet attrs;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.pointsCount, "8")
+                .addAttribute(R.attr.pointOuterColor, "#FF0000")
+                .addAttribute(R.attr.lineOuterColor, "#00FF00")
+                .build();
+    }
+
+    @Test
+    public void ownStyle() {
+        List<Slider> sliders = new ArrayList<>(SLIDERS_COUNT);
+        long before = usedHeap();
+        for (int i = 0; i < SLIDERS_COUNT; i++) {
+            sliders.add(new Slider(activity, attrs));
+        }
+        report("retained heap, own style", before, sliders);
+    }
+
+    @Test
+    public void sharedStyle() {
+        SliderStyle style = SliderStyle.from(activity, attrs);
+        List<Slider> sliders = new ArrayList<>(SLIDERS_COUNT);
+        long before = usedHeap();
+        for (int i = 0; i < SLIDERS_COUNT; i++) {
+            Slider slider = new Slider(activity, attrs);
+            slider.setStyle(style);
+            sliders.add(slider);
+        }
+        report("retained heap, shared style", before, sliders);
+    }
+
+    private static void report(String name, long before, List<Slider> sliders) {
+        long retained = usedHeap() - before;
+        System.out.println(String.format(Locale.US, "%-48s %12.1f B/slider",
+                name, (double) retained / sliders.size()));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // a few rounds until the collector stops finding garbage
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            System.runFinalization();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
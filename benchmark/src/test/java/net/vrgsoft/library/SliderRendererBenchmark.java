@@ -0,0 +1,156 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import net.vrgsoft.library.testing.SliderRendererAssert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renderers against their no allocation contract, and the cost of a canvas frame drawn with the
+ * default circles compared with a point renderer drawing a {@link Path} built once per size.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderRendererBenchmark {
+    private static final int WIDTH = 1080;
+
+    private Activity activity;
+    private SliderStyle style;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        style = SliderStyle.from(activity, null);
+    }
+
+    @Test
+    public void defaultRenderers_doNotAllocate() {
+        SliderRendererAssert.assertNoAllocations(new CirclePointRenderer(), style);
+        SliderRendererAssert.assertNoAllocations(new LineTrackRenderer(), style);
+    }
+
+    @Test
+    public void cachedPath_doesNotAllocate() {
+        SliderRendererAssert.assertNoAllocations(new DiamondPointRenderer(), style);
+    }
+
+    @Test
+    public void pathPerFrame_isReported() {
+        try {
+            SliderRendererAssert.assertNoAllocations(new AllocatingPointRenderer(), style);
+        } catch (AssertionError expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("onGeometryChanged"));
+            return;
+        }
+        throw new AssertionError("allocating renderer passed");
+    }
+
+    @Test
+    public void circleFrame() throws Exception {
+        measureFrame("canvas onDraw, circles", null);
+    }
+
+    @Test
+    public void diamondFrame() throws Exception {
+        measureFrame("canvas onDraw, cached diamond path", new DiamondPointRenderer());
+    }
+
+    private void measureFrame(String name, SliderPointRenderer renderer) throws Exception {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.pointsCount, "8")
+                .addAttribute(R.attr.renderMode, "canvas")
+                .build();
+        final Slider slider = new Slider(activity, attrs);
+        slider.setPointRenderer(renderer);
+        slider.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        slider.layout(0, 0, slider.getMeasuredWidth(), slider.getMeasuredHeight());
+        final RecordingCanvas canvas = new RecordingCanvas(slider.getWidth(), slider.getHeight());
+        slider.setCurrentPosition(slider.getPointsCount() - 1);
+
+        BenchmarkRunner.measure(name, new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                slider.onDraw(canvas);
+            }
+        });
+    }
+
+    /**
+     * Draws the circles as diamonds from one unit path, scaled per radius.
+     */
+    private static class DiamondPointRenderer implements SliderPointRenderer {
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final Path diamond = new Path();
+        private int pulseColor;
+        private int outerColor;
+        private int innerColor;
+
+        @Override
+        public void onGeometryChanged(SliderStyle style, int pointSize) {
+            pulseColor = style.getPulseColor();
+            outerColor = style.getOuterColor();
+            innerColor = style.getInnerColor();
+            diamond.rewind();
+            diamond.moveTo(0, -1);
+            diamond.lineTo(1, 0);
+            diamond.lineTo(0, 1);
+            diamond.lineTo(-1, 0);
+            diamond.close();
+        }
+
+        @Override
+        public void drawPoint(Canvas canvas, float cx, float cy, float pulseRadius, int pulseAlpha,
+                              float outerRadius, float innerRadius) {
+            paint.setColor(pulseColor);
+            paint.setAlpha(pulseAlpha);
+            drawDiamond(canvas, cx, cy, pulseRadius);
+            paint.setColor(outerColor);
+            drawDiamond(canvas, cx, cy, outerRadius);
+            paint.setColor(innerColor);
+            drawDiamond(canvas, cx, cy, innerRadius);
+        }
+
+        private void drawDiamond(Canvas canvas, float cx, float cy, float radius) {
+            if (radius <= 0) return;
+            canvas.save();
+            canvas.translate(cx, cy);
+            canvas.scale(radius, radius);
+            canvas.drawPath(diamond, paint);
+            canvas.restore();
+        }
+    }
+
+    /**
+     * Builds its path in every frame, which the contract forbids.
+     */
+    private static class AllocatingPointRenderer implements SliderPointRenderer {
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        @Override
+        public void onGeometryChanged(SliderStyle style, int pointSize) {
+            paint.setColor(style.getOuterColor());
+        }
+
+        @Override
+        public void drawPoint(Canvas canvas, float cx, float cy, float pulseRadius, int pulseAlpha,
+                              float outerRadius, float innerRadius) {
+            Path path = new Path();
+            path.addCircle(cx, cy, outerRadius, Path.Direction.CW);
+            canvas.drawPath(path, paint);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.vrgsoft.library;
+
+import android.app.Activity;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Attribute parsing during inflation of a slider with {@link #POINTS_COUNT} points. Compares
+ * resolving one {@link SliderStyle} for the whole slider with parsing the attributes again for
+ * the track and for every point, which is what the children did before they received the style.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SliderStyleBenchmark {
+    private static final int POINTS_COUNT = 8;
+
+    private Activity activity;
+    private AttributeSet attrs;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.pointsCount, String.valueOf(POINTS_COUNT))
+                .addAttribute(R.attr.pointOuterColor, "#FF0000")
+                .addAttribute(R.attr.lineOuterColor, "#00FF00")
+                .build();
+    }
+
+    @Test
+    public void parseOnce() throws Exception {
+        BenchmarkRunner.measure("style parsed once", new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                TypedArray a = activity.obtainStyledAttributes(attrs, R.styleable.Slider);
+                new SliderStyle(activity, a);
+                a.recycle();
+            }
+        });
+    }
+
+    @Test
+    public void parsePerChild() throws Exception {
+        BenchmarkRunner.measure("style parsed per child", new BenchmarkRunner.Operation() {
+            @Override
+            public void run(int iteration) {
+                // the slider, the track and every point
+                for (int i = 0; i < POINTS_COUNT + 2; i++) {
+                    TypedArray a = activity.obtainStyledAttributes(attrs, R.styleable.Slider);
+                    new SliderStyle(activity, a);
+                    a.recycle();
+                }
+            }
+        });
+    }
+}
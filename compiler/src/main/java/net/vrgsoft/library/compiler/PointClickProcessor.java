@@ -0,0 +1,154 @@
+package net.vrgsoft.library.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code PointClickBinder} for every class with {@code @OnPointClick} methods, so
+ * {@code app:onPointClick} handlers are called directly instead of through reflection.
+ */
+public class PointClickProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "net.vrgsoft.library.OnPointClick";
+    static final String SUFFIX = "_PointClickBinder";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = elements.getTypeElement(ANNOTATION);
+        if (annotation == null) return false;
+
+        Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            ExecutableElement method = (ExecutableElement) element;
+            if (!isValid(method)) continue;
+
+            TypeElement type = (TypeElement) method.getEnclosingElement();
+            List<ExecutableElement> methods = handlers.get(type);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                handlers.put(type, methods);
+            }
+            methods.add(method);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    private boolean isValid(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+            return error(method, "@OnPointClick methods must not be private or static");
+        }
+        if (method.getParameters().size() != 1
+                || method.getParameters().get(0).asType().getKind() != TypeKind.INT) {
+            return error(method, "@OnPointClick methods must take a single int position");
+        }
+
+        for (Element enclosing = method.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE;
+             enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                return error(method, "@OnPointClick methods must not be declared in private classes");
+            }
+        }
+        return true;
+    }
+
+    private boolean error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+
+    private void write(TypeElement type, List<ExecutableElement> methods) {
+        PackageElement packageElement = elements.getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        // the runtime appends the suffix to Class.getName(), nested classes keep their '$'
+        String binderName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String targetName = types.erasure(type.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated from @OnPointClick methods of ").append(targetName).append(", do not edit.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("public final class ").append(binderName)
+                .append(" implements net.vrgsoft.library.PointClickBinder<").append(targetName).append("> {\n");
+        source.append("    @Override\n");
+        source.append("    public net.vrgsoft.library.Slider.OnPointClickListener bind(final ")
+                .append(targetName).append(" target, String methodName) {\n");
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            source.append("        if (\"").append(name).append("\".equals(methodName)) {\n");
+            source.append("            return new net.vrgsoft.library.Slider.OnPointClickListener() {\n");
+            source.append("                @Override\n");
+            source.append("                public void onPointClick(int position) {\n");
+            source.append("                    target.").append(name).append("(position);\n");
+            source.append("                }\n");
+            source.append("            };\n");
+            source.append("        }\n");
+        }
+        source.append("        return null;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        String fileName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try {
+            JavaFileObject file = filer.createSourceFile(fileName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            error(type, "Could not write " + fileName + ": " + e.getMessage());
+        }
+    }
+}
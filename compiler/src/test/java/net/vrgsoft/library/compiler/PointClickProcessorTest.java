@@ -0,0 +1,161 @@
+package net.vrgsoft.library.compiler;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiles small sources with the processor, the library types are replaced by minimal
+ * stand-ins with the same names.
+ */
+public class PointClickProcessorTest {
+    private static final String[] LIBRARY = {
+            "net/vrgsoft/library/OnPointClick.java",
+            "package net.vrgsoft.library;\n"
+                    + "public @interface OnPointClick {}\n",
+            "net/vrgsoft/library/PointClickBinder.java",
+            "package net.vrgsoft.library;\n"
+                    + "public interface PointClickBinder<T> {\n"
+                    + "    Slider.OnPointClickListener bind(T target, String methodName);\n"
+                    + "}\n",
+            "net/vrgsoft/library/Slider.java",
+            "package net.vrgsoft.library;\n"
+                    + "public class Slider {\n"
+                    + "    public interface OnPointClickListener { void onPointClick(int position); }\n"
+                    + "}\n",
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+    private File classes;
+
+    @Before
+    public void setUp() throws Exception {
+        sources = folder.newFolder("sources");
+        classes = folder.newFolder("classes");
+        for (int i = 0; i < LIBRARY.length; i += 2) {
+            write(LIBRARY[i], LIBRARY[i + 1]);
+        }
+    }
+
+    @Test
+    public void binder_callsHandlerDirectly() throws Exception {
+        write("com/example/Host.java", "package com.example;\n"
+                + "import net.vrgsoft.library.OnPointClick;\n"
+                + "public class Host {\n"
+                + "    public int clicked = -1;\n"
+                + "    @OnPointClick\n"
+                + "    void onPointClick(int position) { clicked = position; }\n"
+                + "}\n");
+        assertTrue(compile().isEmpty());
+
+        ClassLoader loader = new URLClassLoader(new URL[]{classes.toURI().toURL()});
+        Class<?> hostClass = loader.loadClass("com.example.Host");
+        Object host = hostClass.newInstance();
+        Object binder = loader.loadClass("com.example.Host" + PointClickProcessor.SUFFIX).newInstance();
+        Method bind = binder.getClass().getMethod("bind", Object.class, String.class);
+
+        assertNull(bind.invoke(binder, host, "onOtherClick"));
+        Object listener = bind.invoke(binder, host, "onPointClick");
+        assertNotNull(listener);
+        Method onPointClick = loader.loadClass("net.vrgsoft.library.Slider$OnPointClickListener")
+                .getMethod("onPointClick", int.class);
+        onPointClick.invoke(listener, 3);
+        Field clicked = hostClass.getField("clicked");
+        assertEquals(3, clicked.getInt(host));
+    }
+
+    @Test
+    public void nestedClass_keepsBinaryName() throws Exception {
+        write("com/example/Outer.java", "package com.example;\n"
+                + "import net.vrgsoft.library.OnPointClick;\n"
+                + "public class Outer {\n"
+                + "    public static class Inner {\n"
+                + "        @OnPointClick\n"
+                + "        public void onPointClick(int position) {}\n"
+                + "    }\n"
+                + "}\n");
+        assertTrue(compile().isEmpty());
+        assertTrue(new File(classes, "com/example/Outer$Inner" + PointClickProcessor.SUFFIX + ".class").exists());
+    }
+
+    @Test
+    public void invalidHandler_isReported() throws Exception {
+        write("com/example/Host.java", "package com.example;\n"
+                + "import net.vrgsoft.library.OnPointClick;\n"
+                + "public class Host {\n"
+                + "    @OnPointClick\n"
+                + "    private void onPointClick(int position) {}\n"
+                + "    @OnPointClick\n"
+                + "    public void onOtherClick(long position) {}\n"
+                + "}\n");
+        String errors = compile();
+        assertTrue(errors, errors.contains("must not be private or static"));
+        assertTrue(errors, errors.contains("must take a single int position"));
+        assertFalse(new File(classes, "com/example/Host" + PointClickProcessor.SUFFIX + ".class").exists());
+    }
+
+    private void write(String path, String source) throws IOException {
+        File file = new File(sources, path);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return compiler errors, empty if everything compiled
+     */
+    private String compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<File> files = new ArrayList<>();
+        collect(sources, files);
+        StringWriter errors = new StringWriter();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(errors, fileManager, null,
+                    Arrays.asList("-d", classes.getPath(), "-s", classes.getPath()), null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new PointClickProcessor()));
+            task.call();
+        }
+        return errors.toString();
+    }
+
+    private static void collect(File directory, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null) return;
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collect(child, files);
+            } else if (child.getName().endsWith(".java")) {
+                files.add(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+# Generated point click binders are looked up by name, see PointClickBinders
+-keep class * implements net.vrgsoft.library.PointClickBinder { <init>(); }
+-keepclasseswithmembers class * {
+    @net.vrgsoft.library.OnPointClick <methods>;
+}
@@ -0,0 +1,90 @@
+package net.vrgsoft.library;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares inflate, measure/layout and draw cost of {@link Slider#RENDER_MODE_VIEWS} and
+ * {@link Slider#RENDER_MODE_CANVAS}. Results are written to logcat with the {@link #TAG} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SliderRenderModeBenchmark {
+    private static final String TAG = "SliderBenchmark";
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+    private static final int WIDTH = 1080;
+
+    @Test
+    public void compareRenderModes() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                measureMode("views", net.vrgsoft.library.test.R.layout.benchmark_slider_views,
+                        Slider.RENDER_MODE_VIEWS);
+                measureMode("canvas", net.vrgsoft.library.test.R.layout.benchmark_slider_canvas,
+                        Slider.RENDER_MODE_CANVAS);
+            }
+        });
+    }
+
+    private void measureMode(String name, int layout, int expectedMode) {
+        Context context = InstrumentationRegistry.getContext();
+        LayoutInflater inflater = LayoutInflater.from(context);
+
+        for (int i = 0; i < WARMUP; i++) {
+            inflater.inflate(layout, null);
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        Slider slider = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            slider = (Slider) inflater.inflate(layout, null);
+        }
+        long inflate = (SystemClock.elapsedRealtimeNanos() - start) / ITERATIONS;
+        assertEquals(expectedMode, slider.getRenderMode());
+
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        for (int i = 0; i < WARMUP; i++) {
+            measureAndLayout(slider, widthSpec, heightSpec);
+        }
+        start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < ITERATIONS; i++) {
+            measureAndLayout(slider, widthSpec, heightSpec);
+        }
+        long layoutTime = (SystemClock.elapsedRealtimeNanos() - start) / ITERATIONS;
+
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, Math.max(slider.getMeasuredHeight(), 1),
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < WARMUP; i++) {
+            slider.draw(canvas);
+        }
+        start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < ITERATIONS; i++) {
+            slider.draw(canvas);
+        }
+        long draw = (SystemClock.elapsedRealtimeNanos() - start) / ITERATIONS;
+        bitmap.recycle();
+
+        Log.i(TAG, String.format("%s: inflate %d ns, measure+layout %d ns, draw %d ns, children %d",
+                name, inflate, layoutTime, draw, slider.getChildCount()));
+    }
+
+    private static void measureAndLayout(View view, int widthSpec, int heightSpec) {
+        view.forceLayout();
+        view.measure(widthSpec, heightSpec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+}
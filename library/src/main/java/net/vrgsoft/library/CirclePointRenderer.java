@@ -0,0 +1,57 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * The default point: a pulse, an outer and an inner circle in the colors of the style.
+ * Custom renderers can delegate to it to draw something on top of the default look.
+ */
+public final class CirclePointRenderer implements SliderPointRenderer {
+    private final Paint ownPaint;
+
+    private Paint paint;
+    private int pulseColor;
+    private int outerColor;
+    private int innerColor;
+
+    public CirclePointRenderer() {
+        this(true);
+    }
+
+    /**
+     * @param ownPaint false to draw with the paint shared by the style, main thread only
+     */
+    CirclePointRenderer(boolean ownPaint) {
+        if (ownPaint) {
+            this.ownPaint = new Paint();
+            this.ownPaint.setAntiAlias(true);
+            this.ownPaint.setStyle(Paint.Style.FILL);
+        } else {
+            this.ownPaint = null;
+        }
+    }
+
+    @Override
+    public void onGeometryChanged(SliderStyle style, int pointSize) {
+        paint = ownPaint != null ? ownPaint : style.fillPaint;
+        pulseColor = style.getPulseColor();
+        outerColor = style.getOuterColor();
+        innerColor = style.getInnerColor();
+    }
+
+    @Override
+    public void drawPoint(Canvas canvas, float cx, float cy, float pulseRadius, int pulseAlpha,
+                          float outerRadius, float innerRadius) {
+        paint.setColor(pulseColor);
+        paint.setAlpha(pulseAlpha);
+        canvas.drawCircle(cx, cy, pulseRadius, paint);
+
+        paint.setColor(outerColor);
+        paint.setAlpha(0xFF);
+        canvas.drawCircle(cx, cy, outerRadius, paint);
+
+        paint.setColor(innerColor);
+        canvas.drawCircle(cx, cy, innerRadius, paint);
+    }
+}
@@ -0,0 +1,76 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * The default track: a thin guide line in the inner line color and the progress as an outer
+ * line with a narrower inner line on top.
+ */
+public final class LineTrackRenderer implements SliderTrackRenderer {
+    private final Paint ownPaint;
+
+    private Paint paint;
+    private int outerLineColor;
+    private int innerLineColor;
+    private boolean horizontal;
+    private float start;
+    private float end;
+    private float crossCenter;
+    private float directionLineWidth;
+    private float innerLineWidth;
+    private float outerLineWidth;
+
+    public LineTrackRenderer() {
+        this(true);
+    }
+
+    /**
+     * @param ownPaint false to draw with the paint shared by the style, main thread only
+     */
+    LineTrackRenderer(boolean ownPaint) {
+        if (ownPaint) {
+            this.ownPaint = new Paint();
+            this.ownPaint.setAntiAlias(true);
+            this.ownPaint.setStyle(Paint.Style.STROKE);
+        } else {
+            this.ownPaint = null;
+        }
+    }
+
+    @Override
+    public void onGeometryChanged(SliderStyle style, boolean horizontal, float start, float end,
+                                  float crossCenter, float thickness) {
+        paint = ownPaint != null ? ownPaint : style.strokePaint;
+        outerLineColor = style.getOuterLineColor();
+        innerLineColor = style.getInnerLineColor();
+        this.horizontal = horizontal;
+        this.start = start;
+        this.end = end;
+        this.crossCenter = crossCenter;
+        directionLineWidth = thickness * 0.187f;
+        innerLineWidth = thickness * 0.35f;
+        outerLineWidth = thickness;
+    }
+
+    @Override
+    public void drawGuide(Canvas canvas) {
+        drawLine(canvas, innerLineColor, directionLineWidth, end);
+    }
+
+    @Override
+    public void drawProgress(Canvas canvas, float head) {
+        drawLine(canvas, outerLineColor, outerLineWidth, head);
+        drawLine(canvas, innerLineColor, innerLineWidth, head);
+    }
+
+    private void drawLine(Canvas canvas, int color, float strokeWidth, float to) {
+        paint.setColor(color);
+        paint.setStrokeWidth(strokeWidth);
+        if (horizontal) {
+            canvas.drawLine(start, crossCenter, to, crossCenter, paint);
+        } else {
+            canvas.drawLine(crossCenter, start, crossCenter, to, paint);
+        }
+    }
+}
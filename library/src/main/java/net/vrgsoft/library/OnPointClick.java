@@ -0,0 +1,18 @@
+package net.vrgsoft.library;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method named in {@code app:onPointClick}. With the {@code compiler} module as
+ * annotation processor a {@link PointClickBinder} is generated for the declaring class, and the
+ * slider calls the method directly instead of looking it up and invoking it by reflection.
+ * <p>
+ * The method must not be private or static and take a single {@code int} position.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface OnPointClick {
+}
@@ -0,0 +1,18 @@
+package net.vrgsoft.library;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Generated for every class with {@link OnPointClick} methods, named after the class with a
+ * {@value PointClickBinders#SUFFIX} suffix. Not meant to be implemented by hand.
+ *
+ * @param <T> class declaring the handlers
+ */
+public interface PointClickBinder<T> {
+    /**
+     * @return listener calling the handler {@code methodName} of {@code target}, null if the class
+     * declares no such handler
+     */
+    @Nullable
+    Slider.OnPointClickListener bind(T target, String methodName);
+}
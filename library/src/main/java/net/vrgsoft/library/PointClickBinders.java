@@ -0,0 +1,66 @@
+package net.vrgsoft.library;
+
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the generated {@link PointClickBinder} of a class. The lookup by name happens once per
+ * class, dispatching a click afterwards is a plain method call.
+ * <p>
+ * Only used from the main thread.
+ */
+final class PointClickBinders {
+    static final String SUFFIX = "_PointClickBinder";
+
+    private static final Map<Class<?>, PointClickBinder<Object>> BINDERS = new HashMap<>();
+    private static final PointClickBinder<Object> NO_BINDER = new PointClickBinder<Object>() {
+        @Override
+        public Slider.OnPointClickListener bind(Object target, String methodName) {
+            return null;
+        }
+    };
+
+    private PointClickBinders() {
+    }
+
+    /**
+     * @return listener calling the handler {@code methodName} declared by the class of
+     * {@code target} or one of its superclasses, null if none was generated
+     */
+    @Nullable
+    static Slider.OnPointClickListener bind(Object target, String methodName) {
+        for (Class<?> type = target.getClass(); type != null && !isFrameworkClass(type); type = type.getSuperclass()) {
+            Slider.OnPointClickListener listener = findBinder(type).bind(target, methodName);
+            if (listener != null) {
+                return listener;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFrameworkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("android.") || name.startsWith("java.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PointClickBinder<Object> findBinder(Class<?> type) {
+        PointClickBinder<Object> binder = BINDERS.get(type);
+        if (binder != null) {
+            return binder;
+        }
+
+        try {
+            Class<?> binderClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+            binder = (PointClickBinder<Object>) binderClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            binder = NO_BINDER;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Could not create point click binder for " + type.getName(), e);
+        }
+        BINDERS.put(type, binder);
+        return binder;
+    }
+}
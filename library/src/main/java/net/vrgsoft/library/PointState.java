@@ -0,0 +1,65 @@
+package net.vrgsoft.library;
+
+/**
+ * Geometry and current radii of one point, without the {@link android.view.View} around it.
+ */
+final class PointState {
+    static final int PULSE_INITIAL_ALPHA = 0x80;
+    static final int PULSE_INITIAL_RADIUS = 0;
+
+    float endPulseRadius;
+    float endOuterRadius;
+    float endInnerRadius;
+    float startPulseRadius;
+    float startOuterRadius;
+    float startInnerRadius;
+    float middleInnerRadius;
+
+    // keyframe spans, so a frame only multiplies and adds
+    float pulseGrowth;
+    float outerGrowth;
+    float innerGrowth;
+    float innerShrink;
+    float transitGrowth;
+
+    float pulseRadius;
+    float outerRadius;
+    float innerRadius;
+    int pulseAlpha;
+
+    /**
+     * @param baseValue the smaller side of the point bounds
+     */
+    void setSize(int baseValue) {
+        endPulseRadius = baseValue * 0.44f;
+        endOuterRadius = baseValue * 0.26f;
+        endInnerRadius = baseValue * 0.11f;
+
+        startPulseRadius = endOuterRadius / 2;
+        startOuterRadius = endOuterRadius / 2;
+        startInnerRadius = endInnerRadius / 2;
+        middleInnerRadius = endOuterRadius * 0.85f;
+
+        pulseGrowth = endPulseRadius - startPulseRadius;
+        outerGrowth = endOuterRadius - startOuterRadius;
+        innerGrowth = middleInnerRadius - startInnerRadius;
+        innerShrink = endInnerRadius - middleInnerRadius;
+        transitGrowth = endPulseRadius - endOuterRadius;
+
+        reset();
+    }
+
+    /**
+     * @return true if only the outer and inner circles at their end radii are visible
+     */
+    boolean isIdle() {
+        return pulseRadius == PULSE_INITIAL_RADIUS && outerRadius == endOuterRadius && innerRadius == endInnerRadius;
+    }
+
+    void reset() {
+        pulseAlpha = PULSE_INITIAL_ALPHA;
+        pulseRadius = PULSE_INITIAL_RADIUS;
+        outerRadius = endOuterRadius;
+        innerRadius = endInnerRadius;
+    }
+}
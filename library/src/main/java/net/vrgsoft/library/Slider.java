@@ -1,9 +1,12 @@
 package net.vrgsoft.library;
 
-import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.ContextWrapper;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.annotation.ColorInt;
@@ -11,14 +14,23 @@ import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.constraint.ConstraintLayout;
+import android.support.v4.os.TraceCompat;
 import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.TextureView;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.LinearLayout;
+import android.widget.SeekBar;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import static android.support.constraint.ConstraintLayout.LayoutParams.HORIZONTAL;
 import static android.support.constraint.ConstraintLayout.LayoutParams.PARENT_ID;
@@ -26,23 +38,84 @@ import static android.support.constraint.ConstraintLayout.LayoutParams.PARENT_ID
 public class Slider extends ConstraintLayout {
     static final long DEFAULT_ANIMATION_DURATION = 500;
 
+    /**
+     * Every step is a child view, see {@link #setCurrentPosition(int)}
+     */
+    public static final int RENDER_MODE_VIEWS = 0;
+    /**
+     * The track and all points are drawn by the slider itself in one pass
+     */
+    public static final int RENDER_MODE_CANVAS = 1;
+    /**
+     * Like {@link #RENDER_MODE_CANVAS}, but drawn into a {@code TextureView} from a render
+     * thread. The main thread only posts position updates, transition frames and drawing do not
+     * compete with layout and input. The frame-rate cap, the automatic quality downgrade and the
+     * static layer cache do not apply.
+     */
+    public static final int RENDER_MODE_SURFACE = 2;
+
+    /**
+     * Every position change is delivered in order, also on a thread pool
+     */
+    public static final int DELIVERY_EVERY_CHANGE = 0;
+    /**
+     * Changes made before the executor runs the callback collapse into the latest position
+     */
+    public static final int DELIVERY_LATEST = 1;
+    /**
+     * Like {@link #DELIVERY_LATEST}, with a minimum interval between callbacks, see
+     * {@link #addThrottledPointClickListener(OnPointClickListener, Executor, int)}
+     */
+    public static final int DELIVERY_THROTTLED = 2;
+
     private static final int START_INDEX = 1000;
     private static final int DEFAULT_POINT_COUNT = 3;
     private static final int MIN_POINT_COUNT = 2;
     private static final int MAX_POINT_COUNT = 8;
+    private static final int MAX_CANVAS_POINT_COUNT = 100000;
 
     private int mPointsCount;
+    private int mVisiblePointsCount;
     private int mCurrentPosition;
-    private int mPreviousPosition;
-    private int mPointSize;
-    private int mLineStrokeWidth;
-    private int mOrientation;
-    private long mDuration;
+    private int mRenderMode;
+    private boolean mCacheStaticLayer;
+    private SliderStyle mStyle;
+
+    private long mFrameStartTime;
+    private boolean mAnimationPending;
+    private boolean mAnimating;
+    private boolean mFramesPaused;
+    private boolean mHidden;
+    private boolean mWindowFocusLost;
+    private int mCoalescedPositionChanges;
+
+    private int mTouchSlop;
+    private float mTouchDownAlong;
+    private float mScrubOrigin;
+    private float mScrubProgress;
+    private int mScrubStartPosition;
+    private boolean mScrubbing;
+    private boolean mScrubFramePosted;
 
     private OnPointClickListener mPointClickListener;
-    private ClickHandler mClickHandler;
-    private LinkedHashMap<Integer, SliderPoint> mPoints;
+    private ArrayList<SliderPositionDelivery> mPositionDeliveries;
+    private OnMetricsListener mMetricsListener;
+    private SliderMetrics mMetrics;
+    private MetricsDispatcher mMetricsDispatcher;
+    private ScrubHandler mScrubHandler;
+    private AnimationStarter mAnimationStarter;
+    private FrameHandler mFrameHandler;
+    private SliderEngine mEngine;
+    private SliderQuality mQuality;
+    private ArrayList<SliderPoint> mPoints;
     private SliderBgLine mBgLine;
+    private SliderCanvasRenderer mCanvasRenderer;
+    private SliderSurfaceRenderer mSurfaceRenderer;
+    private SliderLayerCache mLayerCache;
+    private SliderPointRenderer mPointRenderer;
+    private SliderTrackRenderer mTrackRenderer;
+    private SliderPointPool mPointPool;
+    private SliderGroup mGroup;
 
     public Slider(Context context) {
         this(context, null);
@@ -58,37 +131,56 @@ public class Slider extends ConstraintLayout {
     }
 
     private void init(Context context, AttributeSet attrs) {
-        initDefaultValues(context);
+        TraceCompat.beginSection("Slider#init");
+        initDefaultValues();
         initAttrs(context, attrs);
-        initBgLine(context, attrs);
-        initPoints(context, attrs);
-        initClickListeners();
+        mEngine = new SliderEngine(mPointsCount);
+        mPointRenderer = createDefaultPointRenderer();
+        mTrackRenderer = createDefaultTrackRenderer();
+        if (mRenderMode == RENDER_MODE_CANVAS) {
+            initCanvasRenderer();
+        } else if (mRenderMode == RENDER_MODE_SURFACE) {
+            initSurfaceRenderer(context);
+        } else {
+            initBgLine(context);
+            initPoints(context);
+        }
+        setStaticLayerCacheEnabled(mCacheStaticLayer);
         setCurrentPosition(mCurrentPosition);
+        TraceCompat.endSection();
     }
 
-    private void initDefaultValues(Context context) {
+    private void initDefaultValues() {
         mPointsCount = DEFAULT_POINT_COUNT;
-        mDuration = DEFAULT_ANIMATION_DURATION;
-        mOrientation = LinearLayout.HORIZONTAL;
-        mPoints = new LinkedHashMap<>();
-        mClickHandler = new ClickHandler();
-        mPointSize = context.getResources().getDimensionPixelSize(R.dimen.defaultPointSize);
-        mLineStrokeWidth = context.getResources().getDimensionPixelSize(R.dimen.defaultLineHeight);
+        mRenderMode = RENDER_MODE_VIEWS;
+        mPoints = new ArrayList<>();
+        mScrubHandler = new ScrubHandler();
+        mTouchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        mAnimationStarter = new AnimationStarter();
+        mFrameHandler = new FrameHandler();
+        mMetricsDispatcher = new MetricsDispatcher();
+        mQuality = new SliderQuality();
     }
 
+    /**
+     * Reads the attributes once for the whole slider, the track and the points get the resolved
+     * {@link SliderStyle} instead of parsing the attributes again.
+     */
     private void initAttrs(Context context, AttributeSet attrs) {
-        if (attrs != null) {
+        if (attrs == null) {
+            mStyle = new SliderStyle(context, null);
+        } else {
             TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.Slider);
 
+            mStyle = new SliderStyle(context, a);
             mPointsCount = a.getInteger(R.styleable.Slider_pointsCount, mPointsCount);
-            if (mPointsCount > MAX_POINT_COUNT || mPointsCount < MIN_POINT_COUNT) {
-                throw new IllegalArgumentException("Sms length should be in range from 1 to 8");
-            }
+            mRenderMode = a.getInt(R.styleable.Slider_renderMode, mRenderMode);
+            mVisiblePointsCount = a.getInteger(R.styleable.Slider_visiblePointsCount, mVisiblePointsCount);
+            mCacheStaticLayer = a.getBoolean(R.styleable.Slider_cacheStaticLayer, mCacheStaticLayer);
+            mQuality.setAdaptive(a.getBoolean(R.styleable.Slider_adaptiveQuality, false));
+            mQuality.setMaxFrameRate(a.getInteger(R.styleable.Slider_maxFrameRate, 0));
 
-            mPointSize = a.getDimensionPixelSize(R.styleable.Slider_pointSize, mPointSize);
-            mLineStrokeWidth = a.getDimensionPixelSize(R.styleable.Slider_lineStrokeWidth, mLineStrokeWidth);
-            mOrientation = a.getInt(R.styleable.Slider_android_orientation, mOrientation);
-            mDuration = a.getInt(R.styleable.Slider_animationDuration, (int) mDuration);
+            checkPointsCount(mPointsCount);
 
             final String handlerName = a.getString(R.styleable.Slider_onPointClick);
             if (handlerName != null) {
@@ -99,14 +191,331 @@ public class Slider extends ConstraintLayout {
         }
     }
 
+    private void checkPointsCount(int pointsCount) {
+        int maxPointCount = mRenderMode != RENDER_MODE_VIEWS ? MAX_CANVAS_POINT_COUNT : MAX_POINT_COUNT;
+        if (pointsCount > maxPointCount || pointsCount < MIN_POINT_COUNT) {
+            throw new IllegalArgumentException("Points count should be in range from "
+                    + MIN_POINT_COUNT + " to " + maxPointCount);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        TraceCompat.beginSection("Slider#onMeasure");
+        if (mCanvasRenderer == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            TraceCompat.endSection();
+            return;
+        }
+
+        int visibleCount = mVisiblePointsCount > 1 ? Math.min(mVisiblePointsCount, mPointsCount) : mPointsCount;
+        int pointSize = mStyle.getPointSize();
+        int length = pointSize * visibleCount;
+        int desiredWidth = mStyle.getOrientation() == HORIZONTAL ? length : pointSize;
+        int desiredHeight = mStyle.getOrientation() == HORIZONTAL ? pointSize : length;
+        setMeasuredDimension(
+                resolveSize(desiredWidth + getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(desiredHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+        TraceCompat.endSection();
+    }
+
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        TraceCompat.beginSection("Slider#onLayout");
         super.onLayout(changed, left, top, right, bottom);
+        TraceCompat.endSection();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.onSizeChanged(w, h, getPaddingLeft(), getPaddingTop(), getPaddingRight(),
+                    getPaddingBottom());
+        }
+    }
+
+    @Override
+    public void setPadding(int left, int top, int right, int bottom) {
+        super.setPadding(left, top, right, bottom);
+        if (mCanvasRenderer != null) {
+            updateCanvasGeometry();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    @Override
+    public void setPaddingRelative(int start, int top, int end, int bottom) {
+        super.setPaddingRelative(start, top, end, bottom);
+        if (mCanvasRenderer != null) {
+            updateCanvasGeometry();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mCanvasRenderer != null && mSurfaceRenderer == null) {
+            TraceCompat.beginSection("Slider#onDraw");
+            mCanvasRenderer.draw(canvas);
+            TraceCompat.endSection();
+        }
+    }
+
+    /**
+     * Handles touches for every render mode from the track geometry: a tap selects the nearest
+     * step, a drag along the track scrubs through the steps and settles on the nearest one when
+     * released, a cancelled drag returns to the step it started from. Moves are applied once per
+     * frame, only the latest sample of a frame counts. A disabled slider ignores touches.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            // disabled while scrubbing, the gesture no longer selects anything
+            if (mScrubbing) {
+                cancelScrub();
+            }
+            return false;
+        }
+        float x = event.getX();
+        float y = event.getY();
+        float along = mStyle.getOrientation() == HORIZONTAL ? x : y;
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (!isOnTrack(x, y)) return false;
+                mTouchDownAlong = along;
+                mScrubOrigin = getStepAt(x, y);
+                mScrubProgress = mScrubOrigin;
+                mScrubbing = false;
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (!mScrubbing && Math.abs(along - mTouchDownAlong) > mTouchSlop) {
+                    mScrubbing = true;
+                    mScrubStartPosition = mCurrentPosition;
+                    if (getParent() != null) {
+                        getParent().requestDisallowInterceptTouchEvent(true);
+                    }
+                }
+                if (mScrubbing) {
+                    scrubTo(along);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mScrubbing) {
+                    scrubTo(along);
+                    finishScrub();
+                } else {
+                    setCurrentPosition(clampPosition(Math.round(mScrubOrigin)));
+                    performClick();
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                if (mScrubbing) {
+                    cancelScrub();
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Called after a tap selected a step, calls the click listener and announces the click.
+     */
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Reports the slider like a {@link SeekBar} over the steps.
+     */
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setClassName(SeekBar.class.getName());
+        event.setItemCount(mPointsCount);
+        event.setCurrentItemIndex(mCurrentPosition);
+    }
+
+    /**
+     * Exposes the steps as a range and, while enabled, the previous and next step as scroll
+     * actions, like a {@link SeekBar}.
+     */
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        info.setClassName(SeekBar.class.getName());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            info.setRangeInfo(AccessibilityNodeInfo.RangeInfo.obtain(AccessibilityNodeInfo.RangeInfo.RANGE_TYPE_INT,
+                    0, mPointsCount - 1, mCurrentPosition));
+        }
+        if (!isEnabled()) return;
+        if (mCurrentPosition > 0) {
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD);
+        }
+        if (mCurrentPosition < mPointsCount - 1) {
+            info.addAction(AccessibilityNodeInfo.ACTION_SCROLL_FORWARD);
+        }
+    }
+
+    @Override
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if (super.performAccessibilityAction(action, arguments)) return true;
+        if (!isEnabled()) return false;
+        int position;
+        switch (action) {
+            case AccessibilityNodeInfo.ACTION_SCROLL_FORWARD:
+                position = mCurrentPosition + 1;
+                break;
+            case AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD:
+                position = mCurrentPosition - 1;
+                break;
+            default:
+                return false;
+        }
+        if (position < 0 || position >= mPointsCount) return false;
+        setCurrentPosition(position);
+        sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+        return true;
+    }
+
+    private void scrubTo(float along) {
+        float pointGap = getPointGap();
+        float progress = pointGap > 0 ? mScrubOrigin + (along - mTouchDownAlong) / pointGap : mScrubOrigin;
+        mScrubProgress = Math.max(0, Math.min(progress, mPointsCount - 1));
+        if (!mScrubFramePosted) {
+            mScrubFramePosted = true;
+            Choreographer.getInstance().postFrameCallback(mScrubHandler);
+        }
+    }
+
+    /**
+     * Shows the last scrub position and animates from there to the nearest step.
+     */
+    private void finishScrub() {
+        mScrubbing = false;
+        cancelScrubFrame();
+        setProgress(mScrubProgress);
+        int position = mCurrentPosition;
+        // setProgress already moved to the nearest step silently, report it like a selection
+        mCurrentPosition = mScrubStartPosition;
+        if (position != mScrubStartPosition) {
+            setCurrentPosition(position);
+        } else {
+            mCurrentPosition = position;
+            requestPositionAnimation();
+        }
+    }
+
+    /**
+     * Animates back to the step the scrub started from, listeners are not called.
+     */
+    private void cancelScrub() {
+        mScrubbing = false;
+        cancelScrubFrame();
+        // setProgress moved to the nearest step silently while scrubbing
+        mCurrentPosition = mScrubStartPosition;
+        requestPositionAnimation();
+    }
+
+    private void cancelScrubFrame() {
+        if (mScrubFramePosted) {
+            mScrubFramePosted = false;
+            Choreographer.getInstance().removeFrameCallback(mScrubHandler);
+        }
+    }
+
+    private int clampPosition(int position) {
+        return Math.max(0, Math.min(position, mPointsCount - 1));
     }
 
-    private void initBgLine(Context context, AttributeSet attrs) {
-        mBgLine = new SliderBgLine(context, attrs);
+    /**
+     * @return step under the given coordinate, fractional and not clamped to the steps
+     */
+    private float getStepAt(float x, float y) {
+        if (mCanvasRenderer != null) {
+            return mCanvasRenderer.getStepAt(x, y);
+        }
+        float pointGap = getPointGap();
+        if (pointGap <= 0) return 0;
+        float along = mStyle.getOrientation() == HORIZONTAL ? x - getPaddingLeft() : y - getPaddingTop();
+        return (along - mStyle.getPointSize() * 0.5f) / pointGap;
+    }
+
+    /**
+     * @return distance between two steps in pixels
+     */
+    private float getPointGap() {
+        if (mCanvasRenderer != null) {
+            return mCanvasRenderer.getPointGap();
+        }
+        return (getTrackArea() - mStyle.getPointSize()) / (float) (mPointsCount - 1);
+    }
+
+    /**
+     * @return length of the area the points are laid out in, without padding
+     */
+    private int getTrackArea() {
+        return mStyle.getOrientation() == HORIZONTAL
+                ? getWidth() - getPaddingLeft() - getPaddingRight()
+                : getHeight() - getPaddingTop() - getPaddingBottom();
+    }
+
+    private boolean isOnTrack(float x, float y) {
+        if (mCanvasRenderer != null) {
+            return mCanvasRenderer.isOnTrack(x, y);
+        }
+        boolean horizontal = mStyle.getOrientation() == HORIZONTAL;
+        float along = horizontal ? x - getPaddingLeft() : y - getPaddingTop();
+        float across = horizontal ? y - getPaddingTop() : x - getPaddingLeft();
+        float crossCenter = (horizontal
+                ? getHeight() - getPaddingTop() - getPaddingBottom()
+                : getWidth() - getPaddingLeft() - getPaddingRight()) * 0.5f;
+        return Math.abs(across - crossCenter) <= mStyle.getPointSize() * 0.5f
+                && along >= 0 && along <= getTrackArea();
+    }
+
+    private void initCanvasRenderer() {
+        mCanvasRenderer = new SliderCanvasRenderer(this, mEngine, mStyle);
+        mCanvasRenderer.setPointsCount(mPointsCount);
+        mCanvasRenderer.setVisiblePointsCount(mVisiblePointsCount);
+        mCanvasRenderer.setPointRenderer(mPointRenderer);
+        mCanvasRenderer.setTrackRenderer(mTrackRenderer);
+        setWillNotDraw(false);
+    }
+
+    /**
+     * The slider keeps a renderer without a host for measuring and hit testing, drawing happens
+     * on the render thread.
+     */
+    private void initSurfaceRenderer(Context context) {
+        mCanvasRenderer = new SliderCanvasRenderer(null, mEngine, mStyle);
+        mCanvasRenderer.setPointsCount(mPointsCount);
+        mCanvasRenderer.setVisiblePointsCount(mVisiblePointsCount);
+
+        TextureView textureView = new TextureView(context);
+        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(0, 0);
+        params.topToTop = PARENT_ID;
+        params.bottomToBottom = PARENT_ID;
+        params.startToStart = PARENT_ID;
+        params.endToEnd = PARENT_ID;
+        addView(textureView, params);
+        mSurfaceRenderer = new SliderSurfaceRenderer(textureView, mStyle, mPointRenderer, mTrackRenderer,
+                mPointsCount, mVisiblePointsCount);
+    }
+
+    private void updateCanvasGeometry() {
+        mCanvasRenderer.onSizeChanged(getWidth(), getHeight(), getPaddingLeft(), getPaddingTop(),
+                getPaddingRight(), getPaddingBottom());
+        requestLayout();
+        invalidate();
+    }
+
+    private void initBgLine(Context context) {
+        mBgLine = new SliderBgLine(context, mStyle, mTrackRenderer);
         mBgLine.setPointsCount(mPointsCount);
+        mBgLine.setEngine(mEngine);
         mBgLine.setId(START_INDEX - 1);
         initLineLayoutParams();
         addView(mBgLine);
@@ -115,12 +524,13 @@ public class Slider extends ConstraintLayout {
     private void initPointsLayoutParams() {
         float bias = 1.0f / (mPointsCount - 1);
         float currentBias = 0;
+        int pointSize = mStyle.getPointSize();
 
-        if (mOrientation == HORIZONTAL) {
-            for (int i = START_INDEX; i < START_INDEX + mPointsCount; ++i) {
+        if (mStyle.getOrientation() == HORIZONTAL) {
+            for (int i = 0; i < mPointsCount; ++i) {
                 SliderPoint point = mPoints.get(i);
 
-                ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(mPointSize, mPointSize);
+                ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(pointSize, pointSize);
                 params.topToTop = PARENT_ID;
                 params.bottomToBottom = PARENT_ID;
                 params.startToStart = PARENT_ID;
@@ -131,10 +541,10 @@ public class Slider extends ConstraintLayout {
                 currentBias += bias;
             }
         } else {
-            for (int i = START_INDEX; i < START_INDEX + mPointsCount; ++i) {
+            for (int i = 0; i < mPointsCount; ++i) {
                 SliderPoint point = mPoints.get(i);
 
-                ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(mPointSize, mPointSize);
+                ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(pointSize, pointSize);
                 params.startToStart = PARENT_ID;
                 params.endToEnd = PARENT_ID;
                 params.startToStart = PARENT_ID;
@@ -148,94 +558,464 @@ public class Slider extends ConstraintLayout {
     }
 
     private void initLineLayoutParams() {
-        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, mLineStrokeWidth);
+        int pointSize = mStyle.getPointSize();
+        int lineStrokeWidth = mStyle.getLineStrokeWidth();
+        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, lineStrokeWidth);
         params.topToTop = PARENT_ID;
         params.bottomToBottom = PARENT_ID;
         params.endToEnd = PARENT_ID;
         params.startToStart = PARENT_ID;
-        if (mOrientation == HORIZONTAL) {
+        if (mStyle.getOrientation() == HORIZONTAL) {
             params.width = ViewGroup.LayoutParams.MATCH_PARENT;
-            params.height = mLineStrokeWidth;
-            params.leftMargin = mPointSize / 2;
-            params.rightMargin = mPointSize / 2;
+            params.height = lineStrokeWidth;
+            params.leftMargin = pointSize / 2;
+            params.rightMargin = pointSize / 2;
         } else {
             params.height = ViewGroup.LayoutParams.MATCH_PARENT;
-            params.width = mLineStrokeWidth;
-            params.topMargin = mPointSize / 2;
-            params.bottomMargin = mPointSize / 2;
+            params.width = lineStrokeWidth;
+            params.topMargin = pointSize / 2;
+            params.bottomMargin = pointSize / 2;
         }
         mBgLine.setLayoutParams(params);
     }
 
-    private void initPoints(Context context, AttributeSet attrs) {
-        for (int i = START_INDEX; i < START_INDEX + mPointsCount; i++) {
-            SliderPoint point = new SliderPoint(context, attrs);
-            point.setId(i);
-            mPoints.put(i, point);
+    private void initPoints(Context context) {
+        updatePointGeometry();
+        for (int i = 0; i < mPointsCount; i++) {
+            SliderPoint point = obtainPoint(context, i);
+            mPoints.add(point);
+            addView(point);
+        }
+        initPointsLayoutParams();
+    }
+
+    /**
+     * @return a point from the pool or a new one, bound to the step at {@code index}
+     */
+    private SliderPoint obtainPoint(Context context, int index) {
+        SliderPoint point = mPointPool != null ? mPointPool.acquire(context) : null;
+        if (point == null) {
+            point = new SliderPoint(context, mPointRenderer);
+        } else {
+            point.setRenderer(mPointRenderer);
+        }
+        point.setId(START_INDEX + index);
+        point.bind(mEngine, index);
+        point.setMetrics(mMetrics);
+        return point;
+    }
+
+    /**
+     * Adds or removes only the points beyond the smaller of the two counts, removed points go
+     * to the pool if there is one.
+     */
+    private void updatePointsCount(int pointsCount) {
+        checkPointsCount(pointsCount);
+        mPointsCount = pointsCount;
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.setPointsCount(pointsCount);
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.setPointsCount(pointsCount);
+            if (mSurfaceRenderer != null) {
+                mSurfaceRenderer.setPointsCount(pointsCount);
+            }
+            updateCanvasGeometry();
+            return;
+        }
+
+        for (int i = mPoints.size() - 1; i >= pointsCount; i--) {
+            SliderPoint point = mPoints.remove(i);
+            removeView(point);
+            if (mPointPool != null) {
+                mPointPool.release(point);
+            }
+        }
+        for (int i = mPoints.size(); i < pointsCount; i++) {
+            SliderPoint point = obtainPoint(getContext(), i);
+            mPoints.add(point);
             addView(point);
         }
+        mBgLine.setPointsCount(pointsCount);
         initPointsLayoutParams();
+        render(previousTrackPosition);
     }
 
-    private void initClickListeners() {
-        for (SliderPoint point : mPoints.values()) {
-            point.setOnClickListener(mClickHandler);
+    /**
+     * Shows the given state right away, for rows of a {@code RecyclerView} being rebound.
+     * Nothing is animated and {@link OnPointClickListener} is not called. Existing point views
+     * are kept, only the difference in count is added or removed, see
+     * {@link #setPointPool(SliderPointPool)}.
+     *
+     * @param pointsCount number of steps
+     * @param position    current position, from 0 to {@code pointsCount - 1}
+     */
+    public void bind(int pointsCount, int position) {
+        position = Math.max(0, Math.min(position, pointsCount - 1));
+        if (mAnimationPending) {
+            mAnimationPending = false;
+            cancelAnimationStart();
+        }
+        stopFrames();
+        mCoalescedPositionChanges = 0;
+
+        if (pointsCount != mPointsCount) {
+            updatePointsCount(pointsCount);
         }
+        mCurrentPosition = position;
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.jumpTo(position);
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.jumpTo(position);
+        }
+        render(previousTrackPosition);
     }
 
+    /**
+     * Changes the number of steps without recreating the slider. Only the added or removed
+     * points are touched and the slider is laid out once on the next traversal. The current
+     * position and a running transition are kept while they fit into the new count, otherwise
+     * the slider moves to the last step.
+     *
+     * @param pointsCount number of steps, from 2 to 8, up to 100000 in {@link #RENDER_MODE_CANVAS}
+     *                    and {@link #RENDER_MODE_SURFACE}
+     */
+    public void setPointsCount(int pointsCount) {
+        if (pointsCount == mPointsCount) return;
+        updatePointsCount(pointsCount);
+        if (mCurrentPosition >= pointsCount) {
+            setCurrentPosition(pointsCount - 1);
+        }
+    }
+
+    /**
+     * @return number of steps
+     */
+    public int getPointsCount() {
+        return mPointsCount;
+    }
+
+    /**
+     * @param pointPool pool shared with other sliders, usually all rows of one list, or null
+     *                  to drop removed points
+     */
+    public void setPointPool(@Nullable SliderPointPool pointPool) {
+        mPointPool = pointPool;
+    }
+
+    /**
+     * Lets a group start and advance this slider's transitions together with the other sliders of
+     * the group, from one frame callback.
+     *
+     * @param group group shared with the other sliders of a screen, or null to schedule frames
+     *              on its own
+     */
+    public void setGroup(@Nullable SliderGroup group) {
+        if (group == mGroup) return;
+        boolean framesPosted = mAnimating && !mFramesPaused;
+        if (mAnimationPending) {
+            cancelAnimationStart();
+        }
+        if (framesPosted) {
+            removeFrameCallback();
+        }
+        mGroup = group;
+        if (mAnimationPending) {
+            requestAnimationStart();
+        }
+        if (framesPosted) {
+            postFrames();
+        }
+    }
+
+    private void requestAnimationStart() {
+        if (mGroup != null) {
+            mGroup.schedule(this);
+        } else {
+            post(mAnimationStarter);
+        }
+    }
+
+    private void cancelAnimationStart() {
+        if (mGroup != null) {
+            mGroup.cancel(this);
+        } else {
+            removeCallbacks(mAnimationStarter);
+        }
+    }
+
+    private void postFrameCallback() {
+        if (mGroup != null) {
+            mGroup.schedule(this);
+        } else {
+            Choreographer.getInstance().postFrameCallback(mFrameHandler);
+        }
+    }
+
+    private void removeFrameCallback() {
+        if (mGroup != null) {
+            mGroup.cancel(this);
+        } else {
+            Choreographer.getInstance().removeFrameCallback(mFrameHandler);
+        }
+    }
+
+    /**
+     * Starts a pending transition or advances the running one, called by {@link SliderGroup}.
+     *
+     * @return true if the slider needs the next frame as well
+     */
+    boolean onGroupFrame(long frameTimeNanos) {
+        if (mAnimationPending) {
+            // like a posted runnable, a detached slider starts once it is attached again
+            if (getWindowToken() != null) {
+                // the group still holds this slider, so scheduling its frames did not add it
+                // again, keep it for the frames of the transition instead
+                startAnimation();
+                return mAnimating && !mFramesPaused;
+            }
+            return false;
+        }
+        return mAnimating && !mFramesPaused && advanceFrame(frameTimeNanos);
+    }
+
+    /**
+     * @return track head in step units as currently drawn, for tests
+     */
+    float getTrackPosition() {
+        return mEngine.getTrackPosition();
+    }
+
+    /**
+     * Calls made before the next animation starts are coalesced, the slider animates from what
+     * is currently drawn to the latest position only.
+     */
     public void setCurrentPosition(int position) {
         if (mCurrentPosition == position) return;
-        mPreviousPosition = mCurrentPosition;
         mCurrentPosition = position;
-        post(new Runnable() {
-            @Override
-            public void run() {
-                Slider.this.startAnimation();
-            }
-        });
+        requestPositionAnimation();
         if (mPointClickListener != null) {
             mPointClickListener.onPointClick(mCurrentPosition);
         }
+        if (mPositionDeliveries != null) {
+            for (int i = 0; i < mPositionDeliveries.size(); i++) {
+                mPositionDeliveries.get(i).onPositionChanged(mCurrentPosition);
+            }
+        }
+    }
+
+    /**
+     * Moves the slider to a fractional position immediately, for example
+     * {@code position + positionOffset} from {@code ViewPager.OnPageChangeListener.onPageScrolled}.
+     * Creates no animators and allocates nothing, so it can be called on every scroll callback.
+     * The current position becomes the nearest step, {@link OnPointClickListener} is not called.
+     *
+     * @param progress position in steps, from 0 to points count - 1
+     */
+    public void setProgress(float progress) {
+        progress = Math.max(0, Math.min(progress, mPointsCount - 1));
+
+        if (mAnimationPending) {
+            mAnimationPending = false;
+            cancelAnimationStart();
+        }
+        stopFrames();
+
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.setProgress(progress);
+        mCurrentPosition = mEngine.getPosition();
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.setProgress(progress);
+        }
+        render(previousTrackPosition);
+    }
+
+    private void requestPositionAnimation() {
+        if (!mAnimationPending) {
+            mAnimationPending = true;
+            requestAnimationStart();
+        } else {
+            mCoalescedPositionChanges++;
+        }
     }
 
     private void startAnimation() {
-        cancelAllAnimations();
-        initDefaultState();
+        mAnimationPending = false;
+        int previousPosition = mEngine.getPosition();
+        // a scrub can end on the current step with the track still between two steps
+        if (previousPosition == mCurrentPosition && mEngine.getTrackPosition() == mCurrentPosition) return;
+
+        stopFrames();
+        // like ValueAnimator, follow the system animator duration scale, 0 jumps to the end
+        long duration = (long) (mStyle.getDuration() * SliderQuality.getDurationScale());
+        boolean reducedEffects = mQuality.useReducedEffects();
+        if (mSurfaceRenderer != null) {
+            // the render thread animates, the slider only keeps the target for hit testing
+            mCoalescedPositionChanges = 0;
+            mEngine.jumpTo(mCurrentPosition);
+            mSurfaceRenderer.setPosition(mCurrentPosition, duration, reducedEffects);
+            return;
+        }
+
+        if (mMetrics != null) {
+            mMetrics.reset(previousPosition, mCurrentPosition);
+            mMetrics.onAnimatorStarted();
+            for (int i = 0; i < mCoalescedPositionChanges; i++) {
+                mMetrics.onPositionCoalesced();
+            }
+        }
+        mCoalescedPositionChanges = 0;
 
-        handleTransitAnimation();
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.setReducedEffects(reducedEffects);
+        mEngine.setPosition(mCurrentPosition, duration);
+        mQuality.onTransitionStarted(this);
+        render(previousTrackPosition);
 
-        mPoints.get(mCurrentPosition + 1000).startSelectAnimation();
-        mBgLine.startAnimation(mCurrentPosition);
+        mAnimating = true;
+        postFrames();
     }
 
-    private void handleTransitAnimation() {
-        int transitPointsCount = Math.abs(mCurrentPosition - mPreviousPosition) - 1;
-        if (transitPointsCount > 0) {
-            long onePointTime = mDuration / (transitPointsCount + 2);
-            long startDelay = 0;
-            if (mCurrentPosition - mPreviousPosition > 1) {
-                for (int i = 1; i < transitPointsCount + 1; ++i) {
-                    startDelay += onePointTime;
-                    mPoints.get(START_INDEX + mPreviousPosition + i).startTransitAnimation(startDelay);
-                }
-            } else {
-                for (int i = 1; i < transitPointsCount + 1; ++i) {
-                    startDelay += onePointTime;
-                    mPoints.get(START_INDEX + mPreviousPosition - i).startTransitAnimation(startDelay);
-                }
+    /**
+     * Schedules the next frame of the running transition, unless the slider is hidden or its
+     * window lost focus. The transition then waits where it is until {@link #updateFrames()}.
+     */
+    private void postFrames() {
+        if (mHidden || mWindowFocusLost) {
+            mFramesPaused = true;
+            return;
+        }
+        mFramesPaused = false;
+        // the next frame continues from the current elapsed time
+        mFrameStartTime = -1;
+        mQuality.onFramesResumed();
+        postFrameCallback();
+    }
+
+    private void updateFrames() {
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.setPaused(mHidden || mWindowFocusLost);
+        }
+        if (!mAnimating) return;
+        if (mHidden || mWindowFocusLost) {
+            if (!mFramesPaused) {
+                mFramesPaused = true;
+                removeFrameCallback();
+            }
+        } else if (mFramesPaused) {
+            postFrames();
+        }
+    }
+
+    /**
+     * Jumps a running transition to its end, so nothing is left for frame callbacks and the
+     * choreographer holds no reference to the slider.
+     */
+    private void finishFrames() {
+        Choreographer choreographer = Choreographer.getInstance();
+        if (mAnimating) {
+            mAnimating = false;
+            mFramesPaused = false;
+            removeFrameCallback();
+            setElapsed(mEngine.getTotalDuration());
+        }
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.finish();
+        }
+        if (mMetrics != null) {
+            choreographer.removeFrameCallback(mMetricsDispatcher);
+            dispatchMetrics();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        SliderQuality.onSliderAttached(getContext());
+        if (mAnimationPending && mGroup != null) {
+            requestAnimationStart();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mScrubbing) {
+            finishScrub();
+        }
+        finishFrames();
+        SliderQuality.onSliderDetached(getContext());
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mHidden = !isVisible;
+        updateFrames();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            // onVisibilityAggregated is not called before N
+            mHidden = visibility != VISIBLE;
+            updateFrames();
+        }
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        mWindowFocusLost = !hasWindowFocus;
+        updateFrames();
+    }
+
+    /**
+     * Cancels the running frame callback and reports the metrics of the transition it drove.
+     */
+    private void stopFrames() {
+        Choreographer choreographer = Choreographer.getInstance();
+        if (mAnimating) {
+            mAnimating = false;
+            mFramesPaused = false;
+            removeFrameCallback();
+            if (mMetrics != null) {
+                mMetrics.onAnimatorCancelled();
+                mMetrics.onInterrupted();
+                dispatchMetrics();
             }
+        } else if (mMetrics != null) {
+            // the previous transition finished but was not reported yet
+            choreographer.removeFrameCallback(mMetricsDispatcher);
+            dispatchMetrics();
         }
     }
 
-    private void initDefaultState() {
-        for (SliderPoint point : mPoints.values()) {
-            point.initDefaultState();
+    private void dispatchMetrics() {
+        if (mMetricsListener != null && mMetrics.getAnimatorsStarted() > 0) {
+            mMetricsListener.onTransitionMetrics(mMetrics);
         }
+        mMetrics.reset(mEngine.getPosition(), mEngine.getPosition());
+    }
+
+    private void setElapsed(long elapsed) {
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.setElapsed(elapsed);
+        render(previousTrackPosition);
     }
 
-    private void cancelAllAnimations() {
-        for (SliderPoint point : mPoints.values()) {
-            point.cancelAllAnimations();
+    /**
+     * Redraws what the last change of {@link #mEngine} touched.
+     */
+    private void render(float previousTrackPosition) {
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.onStateChanged(previousTrackPosition);
+            return;
+        }
+
+        mBgLine.onTrackChanged();
+        for (int i = mEngine.getFirstChangedPoint(); i <= mEngine.getLastChangedPoint(); i++) {
+            mPoints.get(i).onStateChanged();
         }
     }
 
@@ -243,26 +1023,177 @@ public class Slider extends ConstraintLayout {
         mPointClickListener = pointClickListener;
     }
 
+    /**
+     * Calls {@code listener} on {@code executor} after position changes instead of synchronously
+     * in {@link #setCurrentPosition(int)}, so heavy listeners do not delay the frame that starts
+     * the animation. Callbacks of one listener never overlap. Changes the executor rejects, for
+     * example after a shutdown, are dropped.
+     *
+     * @param deliveryPolicy {@link #DELIVERY_EVERY_CHANGE} or {@link #DELIVERY_LATEST}
+     */
+    public void addPointClickListener(@NonNull OnPointClickListener listener, @NonNull Executor executor,
+                                      int deliveryPolicy) {
+        if (deliveryPolicy != DELIVERY_EVERY_CHANGE && deliveryPolicy != DELIVERY_LATEST) {
+            throw new IllegalArgumentException("Use addThrottledPointClickListener for throttled delivery");
+        }
+        addPositionDelivery(new SliderPositionDelivery(listener, executor, deliveryPolicy, 0));
+    }
+
+    /**
+     * Like {@link #addPointClickListener(OnPointClickListener, Executor, int)} with
+     * {@link #DELIVERY_THROTTLED}: changes collapse into the latest position and the listener is
+     * called at most {@code maxPerSecond} times per second.
+     *
+     * @param maxPerSecond callbacks per second at most
+     */
+    public void addThrottledPointClickListener(@NonNull OnPointClickListener listener, @NonNull Executor executor,
+                                               @IntRange(from = 1) int maxPerSecond) {
+        addPositionDelivery(new SliderPositionDelivery(listener, executor, DELIVERY_THROTTLED, maxPerSecond));
+    }
+
+    private void addPositionDelivery(SliderPositionDelivery delivery) {
+        if (mPositionDeliveries == null) {
+            mPositionDeliveries = new ArrayList<>();
+        }
+        mPositionDeliveries.add(delivery);
+    }
+
+    /**
+     * Stops calling a listener added with an executor, callbacks that did not start yet are
+     * dropped.
+     */
+    public void removePointClickListener(@NonNull OnPointClickListener listener) {
+        if (mPositionDeliveries == null) return;
+        for (int i = mPositionDeliveries.size() - 1; i >= 0; i--) {
+            SliderPositionDelivery delivery = mPositionDeliveries.get(i);
+            if (delivery.getListener() == listener) {
+                delivery.cancel();
+                mPositionDeliveries.remove(i);
+            }
+        }
+    }
+
     public interface OnPointClickListener {
         void onPointClick(int position);
     }
 
-    @SuppressLint("ResourceType")
-    private class ClickHandler implements OnClickListener {
+    /**
+     * Reports the cost of every transition. Setting a listener enables measuring, without one
+     * the slider only keeps {@link TraceCompat} sections, which are free unless a system trace
+     * is being recorded.
+     *
+     * @param metricsListener listener to be set, null to stop measuring
+     */
+    public void setMetricsListener(@Nullable OnMetricsListener metricsListener) {
+        mMetricsListener = metricsListener;
+        if (metricsListener != null && mMetrics == null) {
+            mMetrics = new SliderMetrics();
+            mMetrics.reset(mEngine.getPosition(), mEngine.getPosition());
+        } else if (metricsListener == null) {
+            Choreographer.getInstance().removeFrameCallback(mMetricsDispatcher);
+            mMetrics = null;
+        }
+
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.setMetrics(mMetrics);
+        } else {
+            mBgLine.setMetrics(mMetrics);
+            for (SliderPoint point : mPoints) {
+                point.setMetrics(mMetrics);
+            }
+        }
+    }
+
+    public interface OnMetricsListener {
+        /**
+         * Called once a transition finished or was interrupted. {@code metrics} is reused by the
+         * slider, do not keep a reference to it.
+         */
+        void onTransitionMetrics(SliderMetrics metrics);
+    }
+
+    private class AnimationStarter implements Runnable {
         @Override
-        public void onClick(View v) {
-            if (v.getId() - START_INDEX == mCurrentPosition) return;
-            setCurrentPosition(v.getId() - START_INDEX);
-            if (mPointClickListener != null) {
-                mPointClickListener.onPointClick(mCurrentPosition);
+        public void run() {
+            startAnimation();
+        }
+    }
+
+    /**
+     * Moves the running transition to the frame time.
+     *
+     * @return true if the transition needs another frame
+     */
+    private boolean advanceFrame(long frameTimeNanos) {
+        TraceCompat.beginSection("Slider#doFrame");
+        if (mFrameStartTime < 0) {
+            mFrameStartTime = frameTimeNanos - mEngine.getElapsed() * 1000000;
+        }
+        long elapsed = (frameTimeNanos - mFrameStartTime) / 1000000;
+        boolean finished = elapsed >= mEngine.getTotalDuration();
+
+        if (mQuality.onFrame(frameTimeNanos) || finished) {
+            setElapsed(elapsed);
+            if (mMetrics != null) {
+                mMetrics.onFrame();
+            }
+        }
+
+        if (finished) {
+            mAnimating = false;
+            if (mMetrics != null) {
+                // the last frame is drawn after this callback, report on the next one
+                Choreographer.getInstance().postFrameCallback(mMetricsDispatcher);
             }
         }
+        TraceCompat.endSection();
+        return !finished;
     }
 
+    /**
+     * Advances the whole slider from one frame callback, however many points are animating.
+     */
+    private class FrameHandler implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (advanceFrame(frameTimeNanos)) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+    private class MetricsDispatcher implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mMetrics != null) {
+                dispatchMetrics();
+            }
+        }
+    }
+
+    /**
+     * Applies the latest scrub position once per frame.
+     */
+    private class ScrubHandler implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mScrubFramePosted = false;
+            if (mScrubbing) {
+                setProgress(mScrubProgress);
+            }
+        }
+    }
+
+    /**
+     * Calls the handler named in {@code app:onPointClick}. A handler annotated with
+     * {@link OnPointClick} is called through its generated {@link PointClickBinder}, other
+     * handlers are still found and invoked by reflection.
+     */
     private static class DeclaredPointClickListener implements OnPointClickListener {
         private final View mHostView;
         private final String mMethodName;
 
+        private OnPointClickListener mBoundListener;
         private Method mResolvedMethod;
         private Context mResolvedContext;
 
@@ -273,10 +1204,14 @@ public class Slider extends ConstraintLayout {
 
         @Override
         public void onPointClick(int position) {
-            if (mResolvedMethod == null) {
+            if (mBoundListener == null && mResolvedMethod == null) {
                 resolveMethod(mHostView.getContext());
             }
 
+            if (mBoundListener != null) {
+                mBoundListener.onPointClick(position);
+                return;
+            }
             try {
                 mResolvedMethod.invoke(mResolvedContext, position);
             } catch (IllegalAccessException e) {
@@ -290,6 +1225,11 @@ public class Slider extends ConstraintLayout {
 
         private void resolveMethod(@Nullable Context context) {
             while (context != null) {
+                mBoundListener = PointClickBinders.bind(context, mMethodName);
+                if (mBoundListener != null) {
+                    return;
+                }
+
                 try {
                     if (!context.isRestricted()) {
                         final Method method = context.getClass().getMethod(mMethodName, int.class);
@@ -325,96 +1265,303 @@ public class Slider extends ConstraintLayout {
         Parcelable superState = super.onSaveInstanceState();
         SavedState ss = new SavedState(superState);
         ss.setPosition(mCurrentPosition);
+        if (!mAnimationPending) {
+            ss.mProgress = mEngine.getProgress();
+        }
+        if (mAnimating && mEngine.getPosition() == mCurrentPosition) {
+            ss.mFromPosition = mEngine.getFromPosition();
+            ss.mTrackFrom = mEngine.getTrackFrom();
+            ss.mDuration = mEngine.getDuration();
+            ss.mElapsed = mEngine.getElapsed();
+            ss.mReducedEffects = mEngine.isReducedEffects();
+        }
         return ss;
     }
 
+    /**
+     * Shows the saved state right away, like {@link #bind(int, int)}: nothing is replayed and
+     * {@link OnPointClickListener} is not called. A transition that was running when the state
+     * was saved continues from where it was.
+     */
     @Override
     public void onRestoreInstanceState(Parcelable state) {
         SavedState ss = (SavedState) state;
-        setCurrentPosition(ss.getPosition());
         super.onRestoreInstanceState(ss.getSuperState());
+
+        if (!Float.isNaN(ss.mProgress)) {
+            setProgress(ss.mProgress);
+            return;
+        }
+        int position = clampPosition(ss.getPosition());
+        boolean running = ss.mFromPosition >= 0 && ss.mFromPosition < mPointsCount;
+        if (!running || mSurfaceRenderer != null) {
+            // the render thread has no saved transition to continue, it shows the end state
+            bind(mPointsCount, position);
+            return;
+        }
+
+        bind(mPointsCount, ss.mFromPosition);
+        float previousTrackPosition = mEngine.getTrackPosition();
+        mEngine.setReducedEffects(ss.mReducedEffects);
+        mEngine.restore(ss.mFromPosition, position, ss.mTrackFrom, ss.mDuration, ss.mElapsed);
+        mCurrentPosition = position;
+        render(previousTrackPosition);
+        if (mMetrics != null) {
+            mMetrics.reset(ss.mFromPosition, position);
+        }
+
+        mQuality.onTransitionStarted(this);
+        mAnimating = true;
+        postFrames();
     }
 
     /**
      * @param pointSize point width and height
      */
     public void setPointSize(int pointSize) {
-        mPointSize = pointSize;
-        initPointsLayoutParams();
+        setStyle(mStyle.withPointSize(pointSize));
     }
 
     /**
      * @param lineStrokeWidth guide line stroke width
      */
     public void setLineStrokeWidth(int lineStrokeWidth) {
-        mLineStrokeWidth = lineStrokeWidth;
-        initLineLayoutParams();
+        setStyle(mStyle.withLineStrokeWidth(lineStrokeWidth));
     }
 
     /**
      * @param orientation LinearLayout.HORIZONTAL or LinearLayout.VERTICAL
      */
     public void setOrientation(@IntRange(from = LinearLayout.HORIZONTAL, to = LinearLayout.VERTICAL) int orientation) {
-        mOrientation = orientation;
-        mBgLine.setOrientation(orientation);
-        initLineLayoutParams();
-        initPointsLayoutParams();
+        setStyle(mStyle.withOrientation(orientation));
+    }
+
+    /**
+     * Limits the number of points shown at once in {@link #RENDER_MODE_CANVAS} and
+     * {@link #RENDER_MODE_SURFACE}, the window follows the current position. Has no effect in
+     * {@link #RENDER_MODE_VIEWS}.
+     *
+     * @param visiblePointsCount window size, 0 to show all points
+     */
+    public void setVisiblePointsCount(int visiblePointsCount) {
+        mVisiblePointsCount = visiblePointsCount;
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.setVisiblePointsCount(visiblePointsCount);
+        }
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.setVisiblePointsCount(visiblePointsCount);
+            updateCanvasGeometry();
+        }
+    }
+
+    /**
+     * Keeps the guide line and the idle points in bitmaps, so animation frames only rasterize
+     * the moving track and the animating points.
+     *
+     * @param enabled true to cache the static parts of the slider
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        mCacheStaticLayer = enabled;
+        if (enabled && mLayerCache == null) {
+            mLayerCache = new SliderLayerCache();
+        } else if (!enabled && mLayerCache != null) {
+            mLayerCache.release();
+            mLayerCache = null;
+        }
+
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.setLayerCache(mLayerCache);
+        } else {
+            mBgLine.setLayerCache(mLayerCache);
+        }
+    }
+
+    /**
+     * Replaces how the points are drawn, the animation stays the same. The renderer gets the
+     * style and the point size right away and again after every change of either.
+     *
+     * @param renderer renderer for this slider only, null for the default circles
+     */
+    public void setPointRenderer(@Nullable SliderPointRenderer renderer) {
+        mPointRenderer = renderer != null ? renderer : createDefaultPointRenderer();
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.setPointRenderer(mPointRenderer);
+        } else if (mCanvasRenderer != null) {
+            mCanvasRenderer.setPointRenderer(mPointRenderer);
+        } else {
+            updatePointGeometry();
+            for (SliderPoint point : mPoints) {
+                point.setRenderer(mPointRenderer);
+            }
+        }
+    }
+
+    /**
+     * Replaces how the track is drawn, the animation stays the same. The renderer gets the
+     * style and the track bounds right away and again after every change of either.
+     *
+     * @param renderer renderer for this slider only, null for the default lines
+     */
+    public void setTrackRenderer(@Nullable SliderTrackRenderer renderer) {
+        mTrackRenderer = renderer != null ? renderer : createDefaultTrackRenderer();
+        if (mSurfaceRenderer != null) {
+            mSurfaceRenderer.setTrackRenderer(mTrackRenderer);
+        } else if (mCanvasRenderer != null) {
+            mCanvasRenderer.setTrackRenderer(mTrackRenderer);
+        } else {
+            mBgLine.setRenderer(mTrackRenderer);
+        }
+    }
+
+    /**
+     * Default renderers share the paints of the style unless they draw on the render thread.
+     */
+    private SliderPointRenderer createDefaultPointRenderer() {
+        return new CirclePointRenderer(mRenderMode == RENDER_MODE_SURFACE);
+    }
+
+    private SliderTrackRenderer createDefaultTrackRenderer() {
+        return new LineTrackRenderer(mRenderMode == RENDER_MODE_SURFACE);
+    }
+
+    /**
+     * The points of {@link #RENDER_MODE_VIEWS} share the renderer, it is told about the style
+     * once for all of them.
+     */
+    private void updatePointGeometry() {
+        mPointRenderer.onGeometryChanged(mStyle, mStyle.getPointSize());
+    }
+
+    /**
+     * Lets the slider trade effects for frames: with adaptive quality the pulses of a transition
+     * are dropped while the system asks for reduced motion or battery saving, and for good once
+     * frames are repeatedly missed during a transition. Only the track and the selected point
+     * animate then.
+     *
+     * @param enabled true to adapt the effects, enabling again restores full effects
+     */
+    public void setAdaptiveQualityEnabled(boolean enabled) {
+        mQuality.setAdaptive(enabled);
+    }
+
+    /**
+     * @return true if adaptive quality is enabled and missed frames already reduced the effects
+     */
+    public boolean isQualityReduced() {
+        return mQuality.isDowngraded();
+    }
+
+    /**
+     * Caps how often the slider redraws while animating, the animation keeps its duration.
+     *
+     * @param maxFrameRate frames per second at most, 0 for the display refresh rate
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        mQuality.setMaxFrameRate(maxFrameRate);
+    }
+
+    /**
+     * @return {@link #RENDER_MODE_VIEWS}, {@link #RENDER_MODE_CANVAS} or {@link #RENDER_MODE_SURFACE}
+     */
+    public int getRenderMode() {
+        return mRenderMode;
     }
 
     /**
      * @param duration animation duration in ms
      */
     public void setDuration(long duration) {
-        mDuration = duration;
-        mBgLine.setDuration(duration);
-        for(SliderPoint point : mPoints.values()){
-            point.setDuration(duration);
-        }
+        mStyle = mStyle.withDuration(duration);
     }
 
     /**
      * @param outerLineColor color to be set
      */
     public void setOuterLineColor(@ColorInt int outerLineColor) {
-        mBgLine.setOuterLineColor(outerLineColor);
+        setStyle(mStyle.withOuterLineColor(outerLineColor));
     }
 
     /**
      * @param innerLineColor color to be set
      */
     public void setInnerLineColor(@ColorInt int innerLineColor) {
-        mBgLine.setInnerLineColor(innerLineColor);
+        setStyle(mStyle.withInnerLineColor(innerLineColor));
     }
 
     /**
      * @param pulseColor color to be set
      */
     public void setPointPulseColor(int pulseColor) {
-        for(SliderPoint point : mPoints.values()){
-            point.setPulseColor(pulseColor);
-        }
+        setStyle(mStyle.withPulseColor(pulseColor));
     }
 
     /**
      * @param outerColor color to be set
      */
     public void setPointOuterColor(int outerColor) {
-        for(SliderPoint point : mPoints.values()){
-            point.setOuterColor(outerColor);
-        }
+        setStyle(mStyle.withOuterColor(outerColor));
     }
 
     /**
      * @param innerColor color to be set
      */
     public void setPointInnerColor(int innerColor) {
-        for(SliderPoint point : mPoints.values()){
-            point.setInnerColor(innerColor);
+        setStyle(mStyle.withInnerColor(innerColor));
+    }
+
+    /**
+     * @return colors, sizes and duration the slider is drawn with
+     */
+    public SliderStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Sliders with the same style can share one instance, each of them then only keeps its
+     * position and animation state.
+     *
+     * @param style style to be set
+     */
+    public void setStyle(@NonNull SliderStyle style) {
+        SliderStyle previous = mStyle;
+        mStyle = style;
+        boolean geometryChanged = previous.getPointSize() != style.getPointSize()
+                || previous.getLineStrokeWidth() != style.getLineStrokeWidth()
+                || previous.getOrientation() != style.getOrientation();
+
+        if (mCanvasRenderer != null) {
+            mCanvasRenderer.setStyle(style);
+            if (mSurfaceRenderer != null) {
+                mSurfaceRenderer.setStyle(style);
+            }
+            if (geometryChanged) {
+                updateCanvasGeometry();
+            }
+            return;
+        }
+        mBgLine.setStyle(style);
+        updatePointGeometry();
+        for (SliderPoint point : mPoints) {
+            point.invalidate();
+        }
+        if (geometryChanged) {
+            initLineLayoutParams();
+            initPointsLayoutParams();
         }
     }
 
+    /**
+     * Keeps the position and, while a transition runs, what is needed to continue it: where it
+     * started, its duration and the elapsed time.
+     */
     private static final class SavedState extends BaseSavedState {
         private int mPosition;
+        private float mProgress = Float.NaN;
+        private int mFromPosition = -1;
+        private float mTrackFrom;
+        private long mDuration;
+        private long mElapsed;
+        private boolean mReducedEffects;
 
         SavedState(Parcelable superState) {
             super(superState);
@@ -423,12 +1570,24 @@ public class Slider extends ConstraintLayout {
         private SavedState(Parcel in) {
             super(in);
             mPosition = in.readInt();
+            mProgress = in.readFloat();
+            mFromPosition = in.readInt();
+            mTrackFrom = in.readFloat();
+            mDuration = in.readLong();
+            mElapsed = in.readLong();
+            mReducedEffects = in.readInt() != 0;
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
             out.writeInt(mPosition);
+            out.writeFloat(mProgress);
+            out.writeInt(mFromPosition);
+            out.writeFloat(mTrackFrom);
+            out.writeLong(mDuration);
+            out.writeLong(mElapsed);
+            out.writeInt(mReducedEffects ? 1 : 0);
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR
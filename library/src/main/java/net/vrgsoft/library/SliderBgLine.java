@@ -1,176 +1,158 @@
 package net.vrgsoft.library;
 
-import android.animation.ValueAnimator;
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.support.annotation.ColorInt;
-import android.support.annotation.IntRange;
-import android.support.annotation.Nullable;
-import android.util.AttributeSet;
+import android.support.v4.os.TraceCompat;
 import android.view.View;
-import android.view.animation.LinearInterpolator;
 import android.widget.LinearLayout;
 
-import static net.vrgsoft.library.Slider.DEFAULT_ANIMATION_DURATION;
-
-
 class SliderBgLine extends View {
-    private Paint paint;
-    private int outerLineColor;
-    private int innerLineColor;
-    private long duration;
-    private float directionLineWidth;
-    private float innerLineWidth;
-    private float outerLineWidth;
+    private SliderStyle style;
+    private SliderTrackRenderer renderer;
     private float[] positions;
     private int pointsCount;
+    private int length;
     private float currentPosition;
-    private ValueAnimator animator;
+    private SliderEngine engine;
+    private SliderLayerCache layerCache;
+    private SliderMetrics metrics;
     private int mOrientation;
 
-    public SliderBgLine(Context context) {
-        this(context, null);
-    }
-
-    public SliderBgLine(Context context, @Nullable AttributeSet attrs) {
-        this(context, attrs, 0);
-    }
-
-    public SliderBgLine(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
-        super(context, attrs, defStyleAttr);
-        init(context, attrs);
+    SliderBgLine(Context context, SliderStyle style, SliderTrackRenderer renderer) {
+        super(context);
+        this.renderer = renderer;
+        setStyle(style);
     }
 
-    private void init(Context context, AttributeSet attrs) {
-        initDefaultValues(context);
-        initAttrs(context, attrs);
-    }
-
-    private void initDefaultValues(Context context) {
-        paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setStyle(Paint.Style.STROKE);
-        duration = DEFAULT_ANIMATION_DURATION;
-        mOrientation = LinearLayout.HORIZONTAL;
-
-        outerLineColor = context.getResources().getColor(R.color.defaultOuterLineColor);
-        innerLineColor = context.getResources().getColor(R.color.defaultInnerLineColor);
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        length = mOrientation == LinearLayout.HORIZONTAL ? w : h;
+        updatePositions();
+        updateGeometry();
     }
 
-    @SuppressLint("CustomViewStyleable")
-    private void initAttrs(Context context, AttributeSet attrs) {
-        if (attrs != null) {
-            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.Slider);
-
-            outerLineColor = a.getColor(R.styleable.Slider_lineOuterColor, outerLineColor);
-            innerLineColor = a.getColor(R.styleable.Slider_lineInnerColor, outerLineColor);
-            mOrientation = a.getInt(R.styleable.Slider_android_orientation, mOrientation);
-            duration = a.getInt(R.styleable.Slider_animationDuration, (int) duration);
-
-            a.recycle();
+    /**
+     * Hands the style and the bounds to the renderer, the track runs along the middle of the
+     * line and is as thick as the line.
+     */
+    private void updateGeometry() {
+        boolean horizontal = mOrientation == LinearLayout.HORIZONTAL;
+        int thickness = horizontal ? getHeight() : getWidth();
+        renderer.onGeometryChanged(style, horizontal, 0, length, thickness * 0.5f, thickness);
+        if (layerCache != null) {
+            layerCache.invalidate();
         }
     }
 
-    @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        int pointGap;
-        if (mOrientation == LinearLayout.HORIZONTAL) {
-            directionLineWidth = h * 0.187f;
-            innerLineWidth = h * 0.35f;
-            outerLineWidth = h;
-            pointGap = w / (pointsCount - 1);
-        } else {
-            directionLineWidth = w * 0.187f;
-            innerLineWidth = w * 0.35f;
-            outerLineWidth = w;
-            pointGap = h / (pointsCount - 1);
+    private void updatePositions() {
+        if (positions == null || positions.length != pointsCount) {
+            positions = new float[pointsCount];
         }
-
-        positions = new float[pointsCount];
         for (int i = 0; i < pointsCount; ++i) {
-            positions[i] = pointGap * i;
+            positions[i] = (float) length * i / (pointsCount - 1);
         }
+        updatePosition();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
-        paint.setColor(innerLineColor);
-        paint.setStrokeWidth(directionLineWidth);
-        if (mOrientation == LinearLayout.HORIZONTAL) {
-            canvas.drawLine(0, getHeight() * 0.5f, getWidth(), getHeight() * 0.5f, paint);
+        TraceCompat.beginSection("SliderBgLine#onDraw");
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (layerCache != null) {
+            boolean horizontal = mOrientation == LinearLayout.HORIZONTAL;
+            int thickness = horizontal ? getHeight() : getWidth();
+            layerCache.drawGuide(canvas, renderer, horizontal, 0, length, thickness * 0.5f, thickness);
         } else {
-            canvas.drawLine(getWidth() * 0.5f, 0, getWidth() * 0.5f, getHeight(), paint);
+            renderer.drawGuide(canvas);
         }
+        renderer.drawProgress(canvas, currentPosition);
 
-
-        paint.setColor(outerLineColor);
-        paint.setStrokeWidth(outerLineWidth);
-        if (mOrientation == LinearLayout.HORIZONTAL) {
-            canvas.drawLine(0, getHeight() * 0.5f, currentPosition, getHeight() * 0.5f, paint);
-        } else {
-            canvas.drawLine(getWidth() * 0.5f, 0, getWidth() * 0.5f, currentPosition, paint);
+        if (metrics != null) {
+            metrics.onTrackDrawn(System.nanoTime() - start);
         }
+        TraceCompat.endSection();
+    }
 
-        paint.setColor(innerLineColor);
-        paint.setStrokeWidth(innerLineWidth);
-        if (mOrientation == LinearLayout.HORIZONTAL) {
-            canvas.drawLine(0, getHeight() * 0.5f, currentPosition, getHeight() * 0.5f, paint);
-        } else {
-            canvas.drawLine(getWidth() * 0.5f, 0, getWidth() * 0.5f, currentPosition, paint);
-        }
+    void setMetrics(SliderMetrics metrics) {
+        this.metrics = metrics;
     }
 
+    /**
+     * Recomputes the point positions right away once the line has a size, the size itself
+     * does not change with the points count.
+     */
     void setPointsCount(int pointsCount) {
         this.pointsCount = pointsCount;
+        if (positions != null) {
+            updatePositions();
+            invalidate();
+        }
     }
 
-    void startAnimation(int position) {
-        if (animator != null && animator.isRunning()) {
-            animator.cancel();
+    /**
+     * @param layerCache cache for the guide line, null to draw it directly
+     */
+    void setLayerCache(SliderLayerCache layerCache) {
+        this.layerCache = layerCache;
+        if (layerCache != null) {
+            layerCache.invalidate();
         }
-        animator = ValueAnimator.ofFloat(currentPosition, positions[position]);
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                currentPosition = (Float) animation.getAnimatedValue();
-                SliderBgLine.this.invalidate();
-            }
-        });
-        animator.setInterpolator(new LinearInterpolator());
-        animator.setDuration(duration);
-        animator.start();
+        invalidate();
     }
 
     /**
-     * @param outerLineColor color to be set
+     * @param engine engine shared with the points of the slider
      */
-    public void setOuterLineColor(@ColorInt int outerLineColor) {
-        this.outerLineColor = outerLineColor;
-        invalidate();
+    void setEngine(SliderEngine engine) {
+        this.engine = engine;
     }
 
     /**
-     * @param innerLineColor color to be set
+     * Moves the line to the track head of the engine, only the part of the line between the
+     * old and the new position is redrawn.
      */
-    public void setInnerLineColor(@ColorInt int innerLineColor) {
-        this.innerLineColor = innerLineColor;
-        invalidate();
+    void onTrackChanged() {
+        float previousPosition = currentPosition;
+        updatePosition();
+        if (previousPosition == currentPosition) return;
+
+        int start = (int) Math.floor(Math.min(previousPosition, currentPosition)) - 1;
+        int end = (int) Math.ceil(Math.max(previousPosition, currentPosition)) + 1;
+        if (mOrientation == LinearLayout.HORIZONTAL) {
+            invalidate(start, 0, end, getHeight());
+        } else {
+            invalidate(0, start, getWidth(), end);
+        }
+    }
+
+    private void updatePosition() {
+        if (engine == null || positions == null) return;
+
+        float position = engine.getTrackPosition();
+        int index = (int) position;
+        if (index >= pointsCount - 1) {
+            currentPosition = positions[pointsCount - 1];
+        } else {
+            currentPosition = positions[index] + (position - index) * (positions[index + 1] - positions[index]);
+        }
     }
 
     /**
-     * @param duration duration to be set
+     * @param style style of the slider, the orientation is applied on the next layout
      */
-    public void setDuration(long duration) {
-        this.duration = duration;
+    void setStyle(SliderStyle style) {
+        this.style = style;
+        mOrientation = style.getOrientation();
+        updateGeometry();
+        invalidate();
     }
 
     /**
-     * @param orientation orientation to be set
+     * @param renderer renderer of the track, gets the current style and bounds right away
      */
-    public void setOrientation(@IntRange(from = LinearLayout.HORIZONTAL, to = LinearLayout.VERTICAL) int orientation) {
-        mOrientation = orientation;
+    void setRenderer(SliderTrackRenderer renderer) {
+        this.renderer = renderer;
+        updateGeometry();
+        invalidate();
     }
 }
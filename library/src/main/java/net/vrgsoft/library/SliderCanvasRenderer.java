@@ -0,0 +1,322 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.widget.LinearLayout;
+
+/**
+ * Draws the track and every point of a {@link Slider} into the slider's own canvas, so the
+ * indicator is a single view with a single display list. Looks and animates the same as
+ * {@link SliderBgLine} together with one {@link SliderPoint} per step.
+ * <p>
+ * Points have no per-step objects: the state of a point is read from the {@link SliderEngine}
+ * only when the point is inside the canvas clip and the visible window, so a frame costs the same
+ * for ten steps and for ten thousand. Positions are kept in step units and converted to pixels
+ * with float math while drawing.
+ * <p>
+ * The renderer has no animators, it draws the engine of the slider and is told about changes
+ * with {@link #onStateChanged(float)}.
+ * <p>
+ * The pixels come from a {@link SliderPointRenderer} and a {@link SliderTrackRenderer}, which get
+ * the geometry whenever the size or the style changes and the radii of every point while drawing.
+ * <p>
+ * Without a host view the renderer only keeps the geometry and draws into whatever canvas it is
+ * given, possibly from another thread, with the renderers set by its owner.
+ */
+class SliderCanvasRenderer {
+    private final View host;
+    private final PointState pointState;
+    private final SliderEngine engine;
+    private final Rect clipBounds;
+    private final Rect dirtyBounds;
+    private SliderPointRenderer pointRenderer;
+    private SliderTrackRenderer trackRenderer;
+    private SliderLayerCache layerCache;
+    private SliderMetrics metrics;
+
+    private SliderStyle style;
+
+    private int pointsCount;
+    private int visiblePointsCount;
+    private int pointSize;
+    private int lineStrokeWidth;
+    private int orientation;
+
+    private float trackStart;
+    private float trackLength;
+    private float pointGap;
+    private float crossCenter;
+
+    /**
+     * @param host view to invalidate on changes, null if the owner redraws whole frames itself
+     *             and sets the renderers before the first {@link #draw(Canvas)}
+     */
+    SliderCanvasRenderer(@Nullable View host, SliderEngine engine, SliderStyle style) {
+        this.host = host;
+        this.engine = engine;
+        pointState = new PointState();
+        clipBounds = new Rect();
+        dirtyBounds = new Rect();
+        setStyle(style);
+    }
+
+    /**
+     * Same as {@link #onSizeChanged(int, int, int, int, int, int)} without padding, for a canvas
+     * that only covers the content of the slider.
+     */
+    void onSizeChanged(int w, int h) {
+        onSizeChanged(w, h, 0, 0, 0, 0);
+    }
+
+    /**
+     * Lays the track out inside the padding of a canvas of the given size, the same way the
+     * views of {@link Slider#RENDER_MODE_VIEWS} are laid out.
+     */
+    void onSizeChanged(int w, int h, int paddingLeft, int paddingTop, int paddingRight, int paddingBottom) {
+        int contentWidth = w - paddingLeft - paddingRight;
+        int contentHeight = h - paddingTop - paddingBottom;
+        float lineLength;
+        if (orientation == LinearLayout.HORIZONTAL) {
+            lineLength = contentWidth - pointSize;
+            trackStart = paddingLeft + pointSize * 0.5f;
+            crossCenter = paddingTop + contentHeight * 0.5f;
+        } else {
+            lineLength = contentHeight - pointSize;
+            trackStart = paddingTop + pointSize * 0.5f;
+            crossCenter = paddingLeft + contentWidth * 0.5f;
+        }
+        trackLength = Math.max(lineLength, 0);
+
+        pointState.setSize(pointSize);
+        updatePointGap();
+        updateGeometry();
+    }
+
+    /**
+     * Hands the style and the geometry to the renderers, the recorded layers are drawn again.
+     */
+    private void updateGeometry() {
+        if (pointRenderer != null) {
+            pointRenderer.onGeometryChanged(style, pointSize);
+        }
+        if (trackRenderer != null) {
+            trackRenderer.onGeometryChanged(style, orientation == LinearLayout.HORIZONTAL,
+                    trackStart, trackStart + trackLength, crossCenter, lineStrokeWidth);
+        }
+        if (layerCache != null) {
+            layerCache.invalidate();
+        }
+    }
+
+    private void updatePointGap() {
+        int windowCount = getWindowCount();
+        pointGap = windowCount > 1 ? trackLength / (windowCount - 1) : 0;
+    }
+
+    private int getWindowCount() {
+        return visiblePointsCount > 1 && visiblePointsCount < pointsCount ? visiblePointsCount : pointsCount;
+    }
+
+    /**
+     * @param trackPosition track head in step units
+     * @return index of the first visible step, keeps the track head centered once the steps
+     * do not fit into the window
+     */
+    private float getWindowOffset(float trackPosition) {
+        int windowCount = getWindowCount();
+        if (windowCount == pointsCount) return 0;
+        float offset = trackPosition - (windowCount - 1) * 0.5f;
+        return Math.max(0, Math.min(offset, pointsCount - windowCount));
+    }
+
+    void draw(Canvas canvas) {
+        long start = metrics != null ? System.nanoTime() : 0;
+        float trackPosition = engine.getTrackPosition();
+        float windowOffset = getWindowOffset(trackPosition);
+        float trackHead = trackStart + (trackPosition - windowOffset) * pointGap;
+        float trackEnd = trackStart + trackLength;
+
+        if (layerCache != null) {
+            layerCache.drawGuide(canvas, trackRenderer, orientation == LinearLayout.HORIZONTAL,
+                    trackStart, trackEnd, crossCenter, lineStrokeWidth);
+        } else {
+            trackRenderer.drawGuide(canvas);
+        }
+        trackRenderer.drawProgress(canvas, trackHead);
+
+        if (metrics != null) {
+            long trackDrawn = System.nanoTime();
+            metrics.onTrackDrawn(trackDrawn - start);
+            start = trackDrawn;
+        }
+        if (pointGap > 0) {
+            drawPoints(canvas, windowOffset);
+        }
+        if (metrics != null) {
+            metrics.onPointsDrawn(System.nanoTime() - start);
+        }
+    }
+
+    private void drawPoints(Canvas canvas, float windowOffset) {
+        boolean horizontal = orientation == LinearLayout.HORIZONTAL;
+
+        canvas.getClipBounds(clipBounds);
+        float clipStart = (horizontal ? clipBounds.left : clipBounds.top) - pointSize * 0.5f;
+        float clipEnd = (horizontal ? clipBounds.right : clipBounds.bottom) + pointSize * 0.5f;
+
+        int first = Math.max(0, (int) Math.floor(windowOffset + (clipStart - trackStart) / pointGap));
+        int last = Math.min(pointsCount - 1, (int) Math.ceil(windowOffset + (clipEnd - trackStart) / pointGap));
+        float[] pulseRadii = engine.getPulseRadii();
+        float[] outerRadii = engine.getOuterRadii();
+        float[] innerRadii = engine.getInnerRadii();
+        int[] pulseAlphas = engine.getPulseAlphas();
+        for (int i = first; i <= last; i++) {
+            float center = trackStart + (i - windowOffset) * pointGap;
+            float cx = horizontal ? center : crossCenter;
+            float cy = horizontal ? crossCenter : center;
+            if (engine.isIdle(i)) {
+                pointState.reset();
+                if (layerCache != null) {
+                    layerCache.drawIdlePoint(canvas, pointRenderer, cx, cy, pointState);
+                    continue;
+                }
+            } else {
+                pointState.pulseRadius = pulseRadii[i] * pointSize;
+                pointState.outerRadius = outerRadii[i] * pointSize;
+                pointState.innerRadius = innerRadii[i] * pointSize;
+                pointState.pulseAlpha = pulseAlphas[i];
+            }
+            pointRenderer.drawPoint(canvas, cx, cy, pointState.pulseRadius, pointState.pulseAlpha,
+                    pointState.outerRadius, pointState.innerRadius);
+        }
+    }
+
+    /**
+     * @return step under the given slider coordinate, fractional and not clamped to the steps
+     */
+    float getStepAt(float x, float y) {
+        if (pointGap <= 0) return 0;
+        float along = orientation == LinearLayout.HORIZONTAL ? x : y;
+        return getWindowOffset(engine.getTrackPosition()) + (along - trackStart) / pointGap;
+    }
+
+    /**
+     * @return distance between two steps in pixels
+     */
+    float getPointGap() {
+        return pointGap;
+    }
+
+    /**
+     * @return true if the given slider coordinate lies on the track or on one of its points
+     */
+    boolean isOnTrack(float x, float y) {
+        float along = orientation == LinearLayout.HORIZONTAL ? x : y;
+        float across = orientation == LinearLayout.HORIZONTAL ? y : x;
+        float half = pointSize * 0.5f;
+        return Math.abs(across - crossCenter) <= half
+                && along >= trackStart - half && along <= trackStart + trackLength + half;
+    }
+
+    /**
+     * Redraws what the last change of the engine touched: the track between the old and the new
+     * head and the changed points, or everything if the visible window scrolls.
+     *
+     * @param previousTrackPosition track head before the change, in step units
+     */
+    void onStateChanged(float previousTrackPosition) {
+        if (host == null) return;
+        float previousWindowOffset = getWindowOffset(previousTrackPosition);
+        float trackPosition = engine.getTrackPosition();
+        float windowOffset = getWindowOffset(trackPosition);
+        if (windowOffset != previousWindowOffset || pointGap <= 0) {
+            host.invalidate();
+            return;
+        }
+
+        float half = pointSize * 0.5f;
+        float start = Math.min(previousTrackPosition, trackPosition);
+        float end = Math.max(previousTrackPosition, trackPosition);
+        if (engine.getFirstChangedPoint() <= engine.getLastChangedPoint()) {
+            start = Math.min(start, engine.getFirstChangedPoint());
+            end = Math.max(end, engine.getLastChangedPoint());
+        }
+        start = trackStart + (start - windowOffset) * pointGap - half;
+        end = trackStart + (end - windowOffset) * pointGap + half;
+        float crossHalf = Math.max(half, lineStrokeWidth * 0.5f);
+
+        int alongStart = (int) Math.floor(start) - 1;
+        int alongEnd = (int) Math.ceil(end) + 1;
+        int crossStart = (int) Math.floor(crossCenter - crossHalf) - 1;
+        int crossEnd = (int) Math.ceil(crossCenter + crossHalf) + 1;
+        if (orientation == LinearLayout.HORIZONTAL) {
+            dirtyBounds.set(alongStart, crossStart, alongEnd, crossEnd);
+        } else {
+            dirtyBounds.set(crossStart, alongStart, crossEnd, alongEnd);
+        }
+        host.invalidate(dirtyBounds);
+    }
+
+    /**
+     * @param layerCache cache for the guide line and idle points, null to draw everything directly
+     */
+    void setLayerCache(SliderLayerCache layerCache) {
+        this.layerCache = layerCache;
+        if (layerCache != null) {
+            layerCache.invalidate();
+        }
+        invalidate();
+    }
+
+    void setMetrics(SliderMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setPointsCount(int pointsCount) {
+        this.pointsCount = pointsCount;
+        updatePointGap();
+    }
+
+    void setVisiblePointsCount(int visiblePointsCount) {
+        this.visiblePointsCount = visiblePointsCount;
+        updatePointGap();
+    }
+
+    /**
+     * Geometry changes take effect on the next {@link #onSizeChanged(int, int, int, int, int, int)}.
+     */
+    void setStyle(SliderStyle style) {
+        this.style = style;
+        pointSize = style.getPointSize();
+        lineStrokeWidth = style.getLineStrokeWidth();
+        orientation = style.getOrientation();
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * @param pointRenderer renderer of the points, gets the current style and geometry right away
+     */
+    void setPointRenderer(SliderPointRenderer pointRenderer) {
+        this.pointRenderer = pointRenderer;
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * @param trackRenderer renderer of the track, gets the current style and geometry right away
+     */
+    void setTrackRenderer(SliderTrackRenderer trackRenderer) {
+        this.trackRenderer = trackRenderer;
+        updateGeometry();
+        invalidate();
+    }
+
+    private void invalidate() {
+        if (host != null) {
+            host.invalidate();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.vrgsoft.library;
+
+/**
+ * Easing curves of {@link SliderTransition} sampled once into tables shared by every slider.
+ * Evaluating a curve is a table lookup and one linear interpolation instead of a
+ * {@link Math#pow(double, double)} call per point and frame.
+ */
+final class SliderEasing {
+    private static final int TABLE_SIZE = 512;
+
+    /**
+     * Same curve as {@code AccelerateInterpolator(1.2f)}.
+     */
+    static final float[] ACCELERATE = new float[TABLE_SIZE + 1];
+    /**
+     * Same curve as {@code DecelerateInterpolator(2f)}.
+     */
+    static final float[] DECELERATE_2 = new float[TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            double input = (double) i / TABLE_SIZE;
+            ACCELERATE[i] = (float) Math.pow(input, 2.4);
+            DECELERATE_2[i] = (float) (1.0 - Math.pow(1.0 - input, 4));
+        }
+    }
+
+    private SliderEasing() {
+    }
+
+    /**
+     * @param input fraction from 0 to 1, both ends map to the exact ends of the curve
+     */
+    static float lookup(float[] table, float input) {
+        if (input <= 0) return table[0];
+        if (input >= 1) return table[TABLE_SIZE];
+
+        float position = input * TABLE_SIZE;
+        int index = (int) position;
+        float start = table[index];
+        return start + (position - index) * (table[index + 1] - start);
+    }
+
+    /**
+     * Same curve as {@code DecelerateInterpolator()}, cheaper to compute than to look up.
+     */
+    static float decelerate(float input) {
+        return 1f - (1f - input) * (1f - input);
+    }
+}
@@ -0,0 +1,349 @@
+package net.vrgsoft.library;
+
+/**
+ * Position state and animation of a slider without any Android dependency. Given a target
+ * position and the elapsed time it produces the track head and the state of every point in
+ * primitive arrays, which {@link Slider} and its renderers only draw.
+ * <p>
+ * Radii are fractions of the point size, a renderer multiplies them with the size it draws
+ * points at. Only the points a call may have changed are recomputed, see
+ * {@link #getFirstChangedPoint()} and {@link #getLastChangedPoint()}: a frame or a retarget visits
+ * the selected points and the points pulsing in the state shown before and after the call, at
+ * most {@link SliderTransition#MAX_OVERLAPPING_PULSES} per band, so the cost of a call depends
+ * neither on the points count nor on the length of the jump.
+ * <p>
+ * Not thread safe, every call is expected from the thread the slider is drawn from.
+ */
+public final class SliderEngine {
+    private final SliderTransition transition;
+    private final PointState state;
+    private final int[] range;
+    // first and last of the from point, the to point, the pulse band and the outgoing pulse band
+    // at the time shown, every point that is not idle is in one of them
+    private final int[] animatedRanges;
+    private final int[] previousRanges;
+
+    private int pointsCount;
+    private int position;
+    private long elapsed;
+    private float trackPosition;
+
+    private float[] pulseRadii;
+    private float[] outerRadii;
+    private float[] innerRadii;
+    private int[] pulseAlphas;
+
+    private int changedFirst;
+    private int changedLast;
+    private int visitedPoints;
+
+    /**
+     * @param pointsCount number of steps, at least 2
+     */
+    public SliderEngine(int pointsCount) {
+        transition = new SliderTransition();
+        state = new PointState();
+        state.setSize(1);
+        range = new int[2];
+        animatedRanges = new int[8];
+        previousRanges = new int[8];
+        for (int i = 0; i < animatedRanges.length; i += 2) {
+            animatedRanges[i] = Integer.MAX_VALUE;
+            animatedRanges[i + 1] = -1;
+        }
+        // nothing is selected until the first position is set
+        allocate(pointsCount);
+    }
+
+    private void allocate(int pointsCount) {
+        int previousCount = this.pointsCount;
+        float[] previousPulseRadii = pulseRadii;
+        float[] previousOuterRadii = outerRadii;
+        float[] previousInnerRadii = innerRadii;
+        int[] previousPulseAlphas = pulseAlphas;
+
+        this.pointsCount = pointsCount;
+        pulseRadii = new float[pointsCount];
+        outerRadii = new float[pointsCount];
+        innerRadii = new float[pointsCount];
+        pulseAlphas = new int[pointsCount];
+
+        int kept = Math.min(previousCount, pointsCount);
+        if (kept > 0) {
+            System.arraycopy(previousPulseRadii, 0, pulseRadii, 0, kept);
+            System.arraycopy(previousOuterRadii, 0, outerRadii, 0, kept);
+            System.arraycopy(previousInnerRadii, 0, innerRadii, 0, kept);
+            System.arraycopy(previousPulseAlphas, 0, pulseAlphas, 0, kept);
+        }
+        for (int i = kept; i < pointsCount; i++) {
+            pulseRadii[i] = PointState.PULSE_INITIAL_RADIUS;
+            outerRadii[i] = state.endOuterRadius;
+            innerRadii[i] = state.endInnerRadius;
+            pulseAlphas[i] = PointState.PULSE_INITIAL_ALPHA;
+        }
+    }
+
+    /**
+     * Keeps the position and a running transition as far as they fit into the new count, the
+     * arrays returned before are no longer updated.
+     */
+    public void setPointsCount(int pointsCount) {
+        if (pointsCount == this.pointsCount) return;
+        allocate(pointsCount);
+        refresh();
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    /**
+     * With reduced effects only the track moves and no point pulses. Takes effect with the next
+     * {@link #setPosition(int, long)}.
+     */
+    public void setReducedEffects(boolean reducedEffects) {
+        transition.setReducedEffects(reducedEffects);
+    }
+
+    /**
+     * Starts a transition from what is shown now to {@code position} and rewinds the elapsed
+     * time to 0. A running transition is retargeted: the track continues from where it is and
+     * its pulses play to their end.
+     *
+     * @param duration duration of the track movement in ms, 0 shows the end state right away
+     */
+    public void setPosition(int position, long duration) {
+        transition.start(this.position, position, trackPosition, position, duration, elapsed);
+        this.position = position;
+        elapsed = 0;
+        refresh();
+    }
+
+    /**
+     * Shows the end state of {@code position} without a transition.
+     */
+    public void jumpTo(int position) {
+        transition.start(position, position, position, position, 0);
+        this.position = position;
+        elapsed = 0;
+        refresh();
+    }
+
+    /**
+     * Shows the track at a fractional position and blends the selection between the two
+     * nearest points, the position becomes the nearest step.
+     *
+     * @param progress position in step units
+     */
+    public void setProgress(float progress) {
+        transition.setProgress(progress);
+        position = Math.round(progress);
+        elapsed = 0;
+        refresh();
+    }
+
+    /**
+     * Recreates a transition saved from {@link #getFromPosition()}, {@link #getTrackFrom()},
+     * {@link #getDuration()} and {@link #getElapsed()}, without the pulses of transitions it
+     * interrupted.
+     */
+    void restore(int fromPosition, int position, float trackFrom, long duration, long elapsed) {
+        transition.start(fromPosition, position, trackFrom, position, duration);
+        this.position = position;
+        this.elapsed = elapsed;
+        refresh();
+    }
+
+    /**
+     * Moves the running transition to the given time.
+     *
+     * @param elapsed time since the transition started, in ms
+     */
+    public void setElapsed(long elapsed) {
+        this.elapsed = elapsed;
+        // pulses that started and ended between the two frames left their point idle
+        refresh();
+    }
+
+    /**
+     * Recomputes the points that were animated in the state shown before, which may belong to an
+     * earlier transition, together with the points animated now. A point that is not idle is
+     * selected or pulsing, so both sets together cover every point that changes.
+     */
+    private void refresh() {
+        trackPosition = transition.getTrackPosition(elapsed);
+        System.arraycopy(animatedRanges, 0, previousRanges, 0, animatedRanges.length);
+        beginUpdate();
+        updateRanges(previousRanges);
+        collectAnimatedRanges(elapsed, animatedRanges);
+        updateRanges(animatedRanges);
+        endUpdate();
+    }
+
+    /**
+     * Writes the ranges of the selected points and the points pulsing at {@code time} into
+     * {@code ranges}, as first and last pairs.
+     */
+    private void collectAnimatedRanges(long time, int[] ranges) {
+        ranges[0] = transition.getFromPosition();
+        ranges[1] = ranges[0];
+        ranges[2] = transition.getToPosition();
+        ranges[3] = ranges[2];
+        transition.getPulsingPoints(time, range);
+        ranges[4] = range[0];
+        ranges[5] = range[1];
+        transition.getOutgoingPulsingPoints(time, range);
+        ranges[6] = range[0];
+        ranges[7] = range[1];
+    }
+
+    private void updateRanges(int[] ranges) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            update(ranges[i], ranges[i + 1]);
+        }
+    }
+
+    private void beginUpdate() {
+        visitedPoints = 0;
+        changedFirst = Integer.MAX_VALUE;
+        changedLast = -1;
+    }
+
+    private void endUpdate() {
+        if (changedFirst > changedLast) {
+            changedFirst = 0;
+        }
+    }
+
+    private void update(int first, int last) {
+        first = Math.max(first, 0);
+        last = Math.min(last, pointsCount - 1);
+        visitedPoints += Math.max(0, last - first + 1);
+
+        for (int i = first; i <= last; i++) {
+            transition.getPointState(i, elapsed, state);
+            if (pulseRadii[i] != state.pulseRadius || outerRadii[i] != state.outerRadius
+                    || innerRadii[i] != state.innerRadius || pulseAlphas[i] != state.pulseAlpha) {
+                pulseRadii[i] = state.pulseRadius;
+                outerRadii[i] = state.outerRadius;
+                innerRadii[i] = state.innerRadius;
+                pulseAlphas[i] = state.pulseAlpha;
+                changedFirst = Math.min(changedFirst, i);
+                changedLast = Math.max(changedLast, i);
+            }
+        }
+    }
+
+    /**
+     * @return true once the elapsed time reached the end of the transition
+     */
+    public boolean isFinished() {
+        return elapsed >= transition.getTotalDuration();
+    }
+
+    /**
+     * @return time after which the state of the running transition no longer changes, in ms
+     */
+    public long getTotalDuration() {
+        return transition.getTotalDuration();
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return position the engine shows or moves to
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    int getFromPosition() {
+        return transition.getFromPosition();
+    }
+
+    float getTrackFrom() {
+        return transition.getTrackFrom();
+    }
+
+    long getDuration() {
+        return transition.getDuration();
+    }
+
+    boolean isReducedEffects() {
+        return transition.isReducedEffects();
+    }
+
+    /**
+     * @return position set with {@link #setProgress(float)}, NaN while a transition is shown
+     */
+    float getProgress() {
+        return transition.getProgress();
+    }
+
+    /**
+     * @return track head in step units
+     */
+    public float getTrackPosition() {
+        return trackPosition;
+    }
+
+    /**
+     * @return lowest point changed by the last call, greater than {@link #getLastChangedPoint()}
+     * if nothing changed
+     */
+    public int getFirstChangedPoint() {
+        return changedFirst;
+    }
+
+    /**
+     * @return highest point changed by the last call, -1 if nothing changed
+     */
+    public int getLastChangedPoint() {
+        return changedLast;
+    }
+
+    /**
+     * @return number of points recomputed by the last call, for tests
+     */
+    int getVisitedPoints() {
+        return visitedPoints;
+    }
+
+    /**
+     * @return true if the point shows only its outer and inner circles at their end radii
+     */
+    public boolean isIdle(int index) {
+        return pulseRadii[index] == PointState.PULSE_INITIAL_RADIUS
+                && outerRadii[index] == state.endOuterRadius && innerRadii[index] == state.endInnerRadius;
+    }
+
+    /**
+     * @return pulse circle radius of every point as a fraction of the point size, read only
+     */
+    public float[] getPulseRadii() {
+        return pulseRadii;
+    }
+
+    /**
+     * @return outer circle radius of every point as a fraction of the point size, read only
+     */
+    public float[] getOuterRadii() {
+        return outerRadii;
+    }
+
+    /**
+     * @return inner circle radius of every point as a fraction of the point size, read only
+     */
+    public float[] getInnerRadii() {
+        return innerRadii;
+    }
+
+    /**
+     * @return pulse circle alpha of every point, from 0 to 255, read only
+     */
+    public int[] getPulseAlphas() {
+        return pulseAlphas;
+    }
+}
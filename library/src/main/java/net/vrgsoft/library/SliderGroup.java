@@ -0,0 +1,97 @@
+package net.vrgsoft.library;
+
+import android.support.v4.os.TraceCompat;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Drives the sliders of one screen from a single frame callback, see
+ * {@link Slider#setGroup(SliderGroup)}. Position changes start on the next frame instead of a
+ * posted runnable per slider, and every running transition advances in the same callback, so
+ * all invalidations of a frame land in one traversal.
+ * <p>
+ * Only sliders with a pending or running transition are visited, an idle slider costs nothing
+ * per frame however many sliders the group holds. Main thread only.
+ */
+public final class SliderGroup {
+    private final ArrayList<Slider> active;
+    private final FrameHandler frameHandler;
+    private boolean framePosted;
+    private boolean iterating;
+
+    public SliderGroup() {
+        active = new ArrayList<>();
+        frameHandler = new FrameHandler();
+    }
+
+    /**
+     * Calls {@link Slider#onGroupFrame(long)} on the next frame.
+     */
+    void schedule(Slider slider) {
+        if (active.contains(slider)) return;
+        active.add(slider);
+        if (!framePosted) {
+            framePosted = true;
+            Choreographer.getInstance().postFrameCallback(frameHandler);
+        }
+    }
+
+    void cancel(Slider slider) {
+        int index = active.indexOf(slider);
+        if (index < 0) return;
+        if (iterating) {
+            // removed once the current frame is done
+            active.set(index, null);
+        } else {
+            active.remove(index);
+        }
+    }
+
+    /**
+     * @return number of sliders visited on the next frame
+     */
+    public int getActiveCount() {
+        int count = 0;
+        for (int i = 0; i < active.size(); i++) {
+            if (active.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private class FrameHandler implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            TraceCompat.beginSection("SliderGroup#doFrame");
+            framePosted = false;
+            iterating = true;
+            // sliders scheduled from a callback are appended and still run in this frame
+            for (int i = 0; i < active.size(); i++) {
+                Slider slider = active.get(i);
+                if (slider != null && !slider.onGroupFrame(frameTimeNanos)) {
+                    active.set(i, null);
+                }
+            }
+            iterating = false;
+
+            int kept = 0;
+            for (int i = 0; i < active.size(); i++) {
+                Slider slider = active.get(i);
+                if (slider != null) {
+                    active.set(kept++, slider);
+                }
+            }
+            for (int i = active.size() - 1; i >= kept; i--) {
+                active.remove(i);
+            }
+
+            if (kept > 0 && !framePosted) {
+                framePosted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+            TraceCompat.endSection();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.vrgsoft.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * Keeps the parts of a slider that do not change while animating in bitmaps: the guide line
+ * and an idle point, both recorded through the renderers of the slider. The owner calls
+ * {@link #invalidate()} whenever it tells the renderers about a new style or geometry, every
+ * other frame just blits the bitmaps.
+ */
+final class SliderLayerCache {
+    private Bitmap guideLayer;
+    private boolean guideValid;
+    private int guideLeft;
+    private int guideTop;
+
+    private Bitmap pointLayer;
+    private boolean pointValid;
+
+    /**
+     * Records both layers again on their next draw.
+     */
+    void invalidate() {
+        guideValid = false;
+        pointValid = false;
+    }
+
+    /**
+     * Draws the guide of the track, the arguments are the ones the renderer got last in
+     * {@link SliderTrackRenderer#onGeometryChanged}.
+     */
+    void drawGuide(Canvas canvas, SliderTrackRenderer renderer, boolean horizontal, float start, float end,
+                   float cross, float thickness) {
+        if (!guideValid) {
+            recordGuide(renderer, horizontal, start, end, cross, thickness);
+        }
+        if (guideLayer != null) {
+            canvas.drawBitmap(guideLayer, guideLeft, guideTop, null);
+        }
+    }
+
+    private void recordGuide(SliderTrackRenderer renderer, boolean horizontal, float start, float end,
+                             float cross, float thickness) {
+        guideValid = true;
+
+        // integer origin keeps the blit pixel exact with drawing the guide directly
+        int alongStart = (int) Math.floor(start);
+        int crossStart = (int) Math.floor(cross - thickness * 0.5f) - 1;
+        int length = (int) Math.ceil(end) - alongStart;
+        int crossLength = (int) Math.ceil(cross + thickness * 0.5f) + 1 - crossStart;
+        guideLeft = horizontal ? alongStart : crossStart;
+        guideTop = horizontal ? crossStart : alongStart;
+
+        guideLayer = obtainBitmap(guideLayer, horizontal ? length : crossLength, horizontal ? crossLength : length);
+        if (guideLayer == null) return;
+
+        Canvas canvas = new Canvas(guideLayer);
+        canvas.translate(-guideLeft, -guideTop);
+        renderer.drawGuide(canvas);
+    }
+
+    /**
+     * Draws a point in its idle state, see {@link PointState#isIdle()}. The layer is blitted
+     * unfiltered at the whole pixel nearest to its origin, so the point keeps its recorded edges
+     * and moves by less than half a pixel instead of being resampled.
+     */
+    void drawIdlePoint(Canvas canvas, SliderPointRenderer renderer, float cx, float cy, PointState state) {
+        if (!pointValid) {
+            recordPoint(renderer, state);
+        }
+        if (pointLayer != null) {
+            float half = pointLayer.getWidth() * 0.5f;
+            canvas.drawBitmap(pointLayer, Math.round(cx - half), Math.round(cy - half), null);
+        }
+    }
+
+    private void recordPoint(SliderPointRenderer renderer, PointState state) {
+        pointValid = true;
+
+        int size = (int) Math.ceil(Math.max(state.endOuterRadius, state.endInnerRadius) * 2) + 2;
+        pointLayer = obtainBitmap(pointLayer, size, size);
+        if (pointLayer == null) return;
+
+        float center = size * 0.5f;
+        renderer.drawPoint(new Canvas(pointLayer), center, center, PointState.PULSE_INITIAL_RADIUS,
+                PointState.PULSE_INITIAL_ALPHA, state.endOuterRadius, state.endInnerRadius);
+    }
+
+    private static Bitmap obtainBitmap(Bitmap bitmap, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            if (bitmap != null) bitmap.recycle();
+            return null;
+        }
+        if (bitmap != null && bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            bitmap.eraseColor(0);
+            return bitmap;
+        }
+        if (bitmap != null) bitmap.recycle();
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    void release() {
+        invalidate();
+        if (guideLayer != null) {
+            guideLayer.recycle();
+            guideLayer = null;
+        }
+        if (pointLayer != null) {
+            pointLayer.recycle();
+            pointLayer = null;
+        }
+    }
+}
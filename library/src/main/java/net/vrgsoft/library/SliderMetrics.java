@@ -0,0 +1,123 @@
+package net.vrgsoft.library;
+
+/**
+ * Cost of one transition of a {@link Slider}, see {@link Slider#setMetricsListener(Slider.OnMetricsListener)}.
+ * <p>
+ * The slider reuses one instance for every report, copy the values to keep them after
+ * {@link Slider.OnMetricsListener#onTransitionMetrics(SliderMetrics)} returns.
+ */
+public final class SliderMetrics {
+    private int fromPosition;
+    private int toPosition;
+    private int framesProduced;
+    private long trackDrawNanos;
+    private long pointsDrawNanos;
+    private int animatorsStarted;
+    private int animatorsCancelled;
+    private int coalescedPositionChanges;
+    private boolean interrupted;
+
+    void reset(int fromPosition, int toPosition) {
+        this.fromPosition = fromPosition;
+        this.toPosition = toPosition;
+        framesProduced = 0;
+        trackDrawNanos = 0;
+        pointsDrawNanos = 0;
+        animatorsStarted = 0;
+        animatorsCancelled = 0;
+        coalescedPositionChanges = 0;
+        interrupted = false;
+    }
+
+    void onFrame() {
+        framesProduced++;
+    }
+
+    void onTrackDrawn(long nanos) {
+        trackDrawNanos += nanos;
+    }
+
+    void onPointsDrawn(long nanos) {
+        pointsDrawNanos += nanos;
+    }
+
+    void onAnimatorStarted() {
+        animatorsStarted++;
+    }
+
+    void onAnimatorCancelled() {
+        animatorsCancelled++;
+    }
+
+    void onPositionCoalesced() {
+        coalescedPositionChanges++;
+    }
+
+    void onInterrupted() {
+        interrupted = true;
+    }
+
+    /**
+     * @return position the transition started from
+     */
+    public int getFromPosition() {
+        return fromPosition;
+    }
+
+    /**
+     * @return position the transition moved to
+     */
+    public int getToPosition() {
+        return toPosition;
+    }
+
+    /**
+     * @return number of animation frames the transition produced
+     */
+    public int getFramesProduced() {
+        return framesProduced;
+    }
+
+    /**
+     * @return time spent drawing the track, in nanoseconds
+     */
+    public long getTrackDrawNanos() {
+        return trackDrawNanos;
+    }
+
+    /**
+     * @return time spent drawing the points, in nanoseconds
+     */
+    public long getPointsDrawNanos() {
+        return pointsDrawNanos;
+    }
+
+    /**
+     * @return number of frame callbacks the slider started, one per uninterrupted transition
+     */
+    public int getAnimatorsStarted() {
+        return animatorsStarted;
+    }
+
+    /**
+     * @return number of frame callbacks cancelled before the transition finished
+     */
+    public int getAnimatorsCancelled() {
+        return animatorsCancelled;
+    }
+
+    /**
+     * @return number of {@link Slider#setCurrentPosition(int)} calls folded into this transition
+     * before it started
+     */
+    public int getCoalescedPositionChanges() {
+        return coalescedPositionChanges;
+    }
+
+    /**
+     * @return true if a new position interrupted the transition before it finished
+     */
+    public boolean isInterrupted() {
+        return interrupted;
+    }
+}
@@ -1,249 +1,91 @@
 package net.vrgsoft.library;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.support.annotation.Nullable;
-import android.util.AttributeSet;
+import android.support.v4.os.TraceCompat;
 import android.view.View;
-import android.view.animation.AccelerateInterpolator;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.LinearInterpolator;
-
-import static net.vrgsoft.library.Slider.DEFAULT_ANIMATION_DURATION;
 
 class SliderPoint extends View {
-    private static final int PULSE_INITIAL_ALPHA = 0x80;
-    private static final int PULSE_INITIAL_RADIUS = 0;
-
-    private Paint paint;
-
-    private float endPulseRadius;
-    private float endOuterRadius;
-    private float endInnerRadius;
-    private float startPulseRadius;
-    private float startOuterRadius;
-    private float startInnerRadius;
-    private float middleInnerRadius;
+    private SliderEngine engine;
+    private SliderMetrics metrics;
+    private SliderPointRenderer renderer;
 
-    private float currentPulseRadius;
-    private float currentOuterRadius;
-    private float currentInnerRadius;
+    private int index;
+    private int size;
+    private float drawnRadius;
 
     private int centerX;
     private int centerY;
 
-    private int pulseColor;
-    private int outerColor;
-    private int innerColor;
-
-    private int pulseAlpha;
-
-    private ValueAnimator mainAnimator;
-    private ValueAnimator innerCircleSecondHalfAnimator;
-    private ValueAnimator innerCircleFirstHalfAnimator;
-    private ValueAnimator transitAnimator;
-
-    private long duration;
-
-    public SliderPoint(Context context) {
-        this(context, null);
-    }
-
-    public SliderPoint(Context context, @Nullable AttributeSet attrs) {
-        this(context, attrs, 0);
-    }
-
-    public SliderPoint(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
-        super(context, attrs, defStyleAttr);
-        init(context, attrs);
-    }
-
-    private void init(Context context, AttributeSet attrs) {
-        initDefaultValues(context);
-        initAttrs(context, attrs);
-    }
-
-    private void initDefaultValues(Context context) {
-        paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setStyle(Paint.Style.FILL);
-        duration = DEFAULT_ANIMATION_DURATION;
-
-        pulseColor = context.getResources().getColor(R.color.defaultPointPulseColor);
-        outerColor = context.getResources().getColor(R.color.defaultPointOuterColor);
-        innerColor = context.getResources().getColor(R.color.defaultPointInnerColor);
-    }
-
-    @SuppressLint("CustomViewStyleable")
-    private void initAttrs(Context context, AttributeSet attrs) {
-        if (attrs != null) {
-            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.Slider);
-
-            pulseColor = a.getColor(R.styleable.Slider_pointPulseColor, pulseColor);
-            outerColor = a.getColor(R.styleable.Slider_pointOuterColor, outerColor);
-            innerColor = a.getColor(R.styleable.Slider_pointInnerColor, innerColor);
-            duration = a.getInt(R.styleable.Slider_animationDuration, (int) duration);
-
-            a.recycle();
-        }
+    /**
+     * @param renderer renderer shared by all points of the slider
+     */
+    SliderPoint(Context context, SliderPointRenderer renderer) {
+        super(context);
+        this.renderer = renderer;
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        int baseValue = w > h ? h : w;
-
         centerX = w / 2;
         centerY = h / 2;
 
-        endPulseRadius = baseValue * 0.44f;
-        endOuterRadius = baseValue * 0.26f;
-        endInnerRadius = baseValue * 0.11f;
-
-        startPulseRadius = endOuterRadius / 2;
-        startOuterRadius = endOuterRadius / 2;
-        startInnerRadius = endInnerRadius / 2;
-        middleInnerRadius = endOuterRadius * 0.85f;
-
-        initDefaultState();
+        size = w > h ? h : w;
+        drawnRadius = getDrawnRadius();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
-        paint.setColor(pulseColor);
-        paint.setAlpha(pulseAlpha);
-        canvas.drawCircle(centerX, centerY, currentPulseRadius, paint);
-
-        paint.setColor(outerColor);
-        paint.setAlpha(0xFF);
-        canvas.drawCircle(centerX, centerY, currentOuterRadius, paint);
-
-        paint.setColor(innerColor);
-        canvas.drawCircle(centerX, centerY, currentInnerRadius, paint);
-    }
-
-    public void startTransitAnimation(long startDelay) {
-        transitAnimator = ValueAnimator.ofFloat(0, 1);
-        transitAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                float value = (Float) animation.getAnimatedValue();
-                pulseAlpha = (int) ((1 - value) * 255);
-
-                currentPulseRadius = endOuterRadius + value * (endPulseRadius - endOuterRadius);
-                SliderPoint.this.invalidate();
-            }
-        });
-        transitAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                initDefaultState();
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                initDefaultState();
-            }
-        });
-        transitAnimator.setStartDelay(startDelay);
-        transitAnimator.setInterpolator(new DecelerateInterpolator());
-        transitAnimator.setDuration(duration);
-        transitAnimator.start();
-    }
-
-    public void startSelectAnimation() {
-        cancelAllAnimations();
-        startMainAnimation();
-        startInnerCircleAnimation();
-    }
+        TraceCompat.beginSection("SliderPoint#onDraw");
+        long start = metrics != null ? System.nanoTime() : 0;
 
-    private void startMainAnimation() {
-        mainAnimator = ValueAnimator.ofFloat(0, 1);
-        mainAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                float value = (Float) animation.getAnimatedValue();
-                currentPulseRadius = startPulseRadius + value * (endPulseRadius - startPulseRadius);
-                currentOuterRadius = startOuterRadius + value * (endOuterRadius - startOuterRadius);
-                SliderPoint.this.invalidate();
-            }
-        });
-        mainAnimator.setInterpolator(new LinearInterpolator());
-        mainAnimator.setDuration(duration);
-        mainAnimator.start();
-    }
-
-    private void startInnerCircleAnimation() {
-        innerCircleFirstHalfAnimator = ValueAnimator.ofFloat(startInnerRadius, middleInnerRadius);
-        innerCircleFirstHalfAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                currentInnerRadius = (Float) animation.getAnimatedValue();
-                SliderPoint.this.invalidate();
-            }
-        });
-        innerCircleFirstHalfAnimator.setDuration(duration);
-        innerCircleFirstHalfAnimator.setInterpolator(new AccelerateInterpolator(1.2f));
-        innerCircleFirstHalfAnimator.start();
-
-        innerCircleSecondHalfAnimator = ValueAnimator.ofFloat(middleInnerRadius, endInnerRadius);
-        innerCircleSecondHalfAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                currentInnerRadius = (Float) animation.getAnimatedValue();
-                SliderPoint.this.invalidate();
-            }
-        });
-        innerCircleSecondHalfAnimator.setInterpolator(new DecelerateInterpolator(2f));
-        innerCircleSecondHalfAnimator.setDuration(duration);
-        innerCircleSecondHalfAnimator.setStartDelay(duration);
-        innerCircleSecondHalfAnimator.start();
-    }
-
-    public void cancelAllAnimations() {
-        if (mainAnimator != null && mainAnimator.isRunning()) {
-            mainAnimator.cancel();
-        }
-        if (innerCircleFirstHalfAnimator != null && innerCircleFirstHalfAnimator.isRunning()) {
-            innerCircleFirstHalfAnimator.cancel();
+        if (engine != null) {
+            renderer.drawPoint(canvas, centerX, centerY,
+                    engine.getPulseRadii()[index] * size, engine.getPulseAlphas()[index],
+                    engine.getOuterRadii()[index] * size, engine.getInnerRadii()[index] * size);
         }
-        if (innerCircleSecondHalfAnimator != null) {
-            innerCircleSecondHalfAnimator.cancel();
-        }
-        if (transitAnimator != null && transitAnimator.isRunning()) {
-            transitAnimator.cancel();
+
+        if (metrics != null) {
+            metrics.onPointsDrawn(System.nanoTime() - start);
         }
+        TraceCompat.endSection();
     }
 
-    public void initDefaultState() {
-        pulseAlpha = PULSE_INITIAL_ALPHA;
-        currentPulseRadius = PULSE_INITIAL_RADIUS;
-        currentOuterRadius = endOuterRadius;
-        currentInnerRadius = endInnerRadius;
-        invalidate();
+    void setMetrics(SliderMetrics metrics) {
+        this.metrics = metrics;
     }
 
-    public void setDuration(long duration) {
-        this.duration = duration;
+    /**
+     * @param engine engine shared by all points of the slider
+     * @param index  position of this point
+     */
+    void bind(SliderEngine engine, int index) {
+        this.engine = engine;
+        this.index = index;
     }
 
-    public void setPulseColor(int pulseColor) {
-        this.pulseColor = pulseColor;
-        invalidate();
+    /**
+     * Called when the engine changed the state of this point, only the circles of the old and
+     * the new state are redrawn.
+     */
+    void onStateChanged() {
+        float previousRadius = drawnRadius;
+        drawnRadius = getDrawnRadius();
+        int radius = (int) Math.ceil(Math.max(previousRadius, drawnRadius)) + 1;
+        invalidate(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
     }
 
-    public void setOuterColor(int outerColor) {
-        this.outerColor = outerColor;
-        invalidate();
+    private float getDrawnRadius() {
+        if (engine == null) return 0;
+        return Math.max(engine.getPulseRadii()[index],
+                Math.max(engine.getOuterRadii()[index], engine.getInnerRadii()[index])) * size;
     }
 
-    public void setInnerColor(int innerColor) {
-        this.innerColor = innerColor;
+    /**
+     * @param renderer renderer shared by all points of the slider
+     */
+    void setRenderer(SliderPointRenderer renderer) {
+        this.renderer = renderer;
         invalidate();
     }
 }
@@ -0,0 +1,69 @@
+package net.vrgsoft.library;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * Point views released by sliders that lost steps in {@link Slider#bind(int, int)}, kept for
+ * sliders that gain steps. Share one pool between the rows of a list so rebinding a row to a
+ * different points count moves existing views around instead of creating new ones.
+ * <p>
+ * Only used from the main thread.
+ */
+public final class SliderPointPool {
+    private static final int DEFAULT_MAX_SIZE = 32;
+
+    private final int maxSize;
+    private final ArrayList<SliderPoint> points;
+
+    public SliderPointPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize number of point views kept at most, released views beyond it are dropped
+     */
+    public SliderPointPool(int maxSize) {
+        this.maxSize = maxSize;
+        points = new ArrayList<>(Math.min(maxSize, DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @return a released point created with the given context or null if there is none
+     */
+    @Nullable
+    SliderPoint acquire(Context context) {
+        for (int i = points.size() - 1; i >= 0; i--) {
+            if (points.get(i).getContext() == context) {
+                return points.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param point point already removed from its slider
+     */
+    void release(SliderPoint point) {
+        if (points.size() >= maxSize) return;
+        point.setMetrics(null);
+        point.bind(null, 0);
+        points.add(point);
+    }
+
+    /**
+     * @return number of point views waiting to be reused
+     */
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Drops every pooled view.
+     */
+    public void clear() {
+        points.clear();
+    }
+}
@@ -0,0 +1,43 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws the points of a {@link Slider}, see {@link Slider#setPointRenderer(SliderPointRenderer)}.
+ * The default is {@link CirclePointRenderer}.
+ * <p>
+ * The slider computes the animation, a renderer only turns the state of one point into pixels.
+ * Everything that depends on the style or the point size, like paints, {@code Path}s and
+ * shaders, is built in {@link #onGeometryChanged(SliderStyle, int)}, which runs before the first
+ * frame and again after every change of either. {@link #drawPoint} runs for every point of every
+ * frame and must not allocate, {@code SliderRendererAssert} in the {@code testing} module checks
+ * that in unit tests.
+ * <p>
+ * One instance draws all points of one slider. Both methods are called on the thread that draws
+ * the slider, the render thread in {@link Slider#RENDER_MODE_SURFACE}.
+ */
+public interface SliderPointRenderer {
+
+    /**
+     * Called when the style or the point size changed, may also be called again with the same
+     * values.
+     *
+     * @param style     colors of the slider
+     * @param pointSize size of one point in pixels
+     */
+    void onGeometryChanged(SliderStyle style, int pointSize);
+
+    /**
+     * Draws one point centered at the given coordinates. Only the circle of the largest of the
+     * three radii is redrawn when the state of a point changes, so the point must stay inside it.
+     * An idle point, with a pulse radius of 0 and the outer and inner radii at their end size,
+     * may be drawn from a bitmap recorded once.
+     *
+     * @param pulseRadius radius of the pulse in pixels
+     * @param pulseAlpha  alpha of the pulse, 0 to 255
+     * @param outerRadius radius of the outer circle in pixels
+     * @param innerRadius radius of the inner circle in pixels
+     */
+    void drawPoint(Canvas canvas, float cx, float cy, float pulseRadius, int pulseAlpha,
+                   float outerRadius, float innerRadius);
+}
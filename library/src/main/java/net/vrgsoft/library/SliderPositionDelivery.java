@@ -0,0 +1,233 @@
+package net.vrgsoft.library;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers position changes of a {@link Slider} to a listener on an {@link Executor}, see
+ * {@link Slider#addPointClickListener(Slider.OnPointClickListener, Executor, int)}.
+ * <p>
+ * At most one callback is queued at a time. With {@link Slider#DELIVERY_EVERY_CHANGE} it reports
+ * every change queued until it runs, in order, otherwise it reports the latest position, so any
+ * number of changes collapses into one callback per executor turn, or per throttle interval. A
+ * position equal to the last delivered one is then not delivered again. Callbacks of one
+ * listener never run concurrently, even on a thread pool. Changes the executor rejects are
+ * dropped.
+ * <p>
+ * {@link #onPositionChanged(int)} and {@link #cancel()} are called on the main thread, the
+ * callbacks run on the executor.
+ */
+final class SliderPositionDelivery implements Runnable {
+    private static final int INITIAL_QUEUE_CAPACITY = 8;
+
+    private final Slider.OnPointClickListener listener;
+    private final Executor executor;
+    private final int policy;
+    private final long intervalMillis;
+    private final Timer timer;
+    private final Runnable submitter;
+
+    private final AtomicInteger latestPosition;
+    private final AtomicBoolean scheduled;
+    private volatile long lastDeliveryTime;
+    private volatile boolean cancelled;
+    // only touched by the single callback in flight, callbacks never overlap
+    private int deliveredPosition;
+
+    // changes not delivered yet with DELIVERY_EVERY_CHANGE, a ring guarded by itself
+    private int[] queue;
+    private int queueHead;
+    private int queueSize;
+
+    /**
+     * @param maxPerSecond callbacks per second at most for {@link Slider#DELIVERY_THROTTLED}
+     */
+    SliderPositionDelivery(Slider.OnPointClickListener listener, Executor executor, int policy, int maxPerSecond) {
+        this(listener, executor, policy, maxPerSecond,
+                policy == Slider.DELIVERY_THROTTLED ? new MainThreadTimer() : null);
+    }
+
+    /**
+     * @param timer times throttled callbacks, only used with {@link Slider#DELIVERY_THROTTLED}
+     */
+    SliderPositionDelivery(Slider.OnPointClickListener listener, Executor executor, int policy, int maxPerSecond,
+                           Timer timer) {
+        this.listener = listener;
+        this.executor = executor;
+        this.policy = policy;
+        intervalMillis = policy == Slider.DELIVERY_THROTTLED ? 1000 / Math.max(1, maxPerSecond) : 0;
+        this.timer = policy == Slider.DELIVERY_THROTTLED ? timer : null;
+        submitter = new Runnable() {
+            @Override
+            public void run() {
+                submit();
+            }
+        };
+        latestPosition = new AtomicInteger();
+        scheduled = new AtomicBoolean();
+        lastDeliveryTime = -intervalMillis;
+        deliveredPosition = -1;
+        if (policy == Slider.DELIVERY_EVERY_CHANGE) {
+            queue = new int[INITIAL_QUEUE_CAPACITY];
+        }
+    }
+
+    Slider.OnPointClickListener getListener() {
+        return listener;
+    }
+
+    void onPositionChanged(int position) {
+        if (policy == Slider.DELIVERY_EVERY_CHANGE) {
+            enqueue(position);
+        } else {
+            latestPosition.set(position);
+        }
+        schedule();
+    }
+
+    /**
+     * Queues a callback unless one is queued or running already, may be called from any thread.
+     */
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) return;
+        if (timer != null) {
+            long delay = lastDeliveryTime + intervalMillis - timer.uptimeMillis();
+            if (delay > 0) {
+                timer.postDelayed(submitter, delay);
+                return;
+            }
+        }
+        submit();
+    }
+
+    /**
+     * Hands the callback to the executor. If the executor rejects it, for example after a
+     * shutdown, the changes queued so far are dropped and the next change tries again.
+     */
+    private void submit() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            clearQueue();
+            scheduled.set(false);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (timer != null) {
+            lastDeliveryTime = timer.uptimeMillis();
+        }
+        try {
+            if (policy == Slider.DELIVERY_EVERY_CHANGE) {
+                deliverQueued();
+            } else {
+                deliverLatest();
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // a change that arrived while the listener ran found a callback in flight
+        if (!cancelled && hasUndelivered()) {
+            schedule();
+        }
+    }
+
+    private void deliverQueued() {
+        while (!cancelled) {
+            int position;
+            synchronized (this) {
+                if (queueSize == 0) return;
+                position = queue[queueHead];
+                queueHead = (queueHead + 1) % queue.length;
+                queueSize--;
+            }
+            listener.onPointClick(position);
+        }
+    }
+
+    private void deliverLatest() {
+        int position = latestPosition.get();
+        if (!cancelled && position != deliveredPosition) {
+            deliveredPosition = position;
+            listener.onPointClick(position);
+        }
+    }
+
+    private boolean hasUndelivered() {
+        if (policy == Slider.DELIVERY_EVERY_CHANGE) {
+            synchronized (this) {
+                return queueSize > 0;
+            }
+        }
+        return latestPosition.get() != deliveredPosition;
+    }
+
+    private synchronized void enqueue(int position) {
+        if (queueSize == queue.length) {
+            int[] grown = new int[queue.length * 2];
+            for (int i = 0; i < queueSize; i++) {
+                grown[i] = queue[(queueHead + i) % queue.length];
+            }
+            queue = grown;
+            queueHead = 0;
+        }
+        queue[(queueHead + queueSize) % queue.length] = position;
+        queueSize++;
+    }
+
+    /**
+     * Drops callbacks that are not running yet.
+     */
+    void cancel() {
+        cancelled = true;
+        if (timer != null) {
+            timer.removeCallbacks(submitter);
+        }
+        clearQueue();
+    }
+
+    private void clearQueue() {
+        if (queue != null) {
+            synchronized (this) {
+                queueSize = 0;
+            }
+        }
+    }
+
+    /**
+     * Clock and delayed posts of throttled callbacks.
+     */
+    interface Timer {
+        long uptimeMillis();
+
+        void postDelayed(Runnable runnable, long delayMillis);
+
+        void removeCallbacks(Runnable runnable);
+    }
+
+    private static final class MainThreadTimer implements Timer {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+
+        @Override
+        public void postDelayed(Runnable runnable, long delayMillis) {
+            handler.postDelayed(runnable, delayMillis);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable runnable) {
+            handler.removeCallbacks(runnable);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.vrgsoft.library;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.PowerManager;
+import android.provider.Settings;
+import android.view.Display;
+import android.view.View;
+
+/**
+ * Decides how much of a transition a {@link Slider} renders: the frame-rate cap, the
+ * reduced-effect tier and the automatic downgrade after repeatedly missed frames.
+ * <p>
+ * The system settings it depends on are read when a slider is attached and kept for all
+ * sliders, power save mode is then followed by one receiver while any slider is attached, so
+ * starting a transition does not query the system.
+ */
+final class SliderQuality {
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+    /**
+     * A frame later than this many frame intervals counts as missed
+     */
+    private static final float MISSED_FRAME_FACTOR = 1.5f;
+    /**
+     * Missed frames within one transition after which the slider switches to reduced effects
+     */
+    private static final int MISSED_FRAMES_LIMIT = 4;
+
+    // settings shared by all sliders, only touched on the main thread
+    private static float durationScale = 1f;
+    private static boolean powerSaveMode;
+    private static int attachedSliders;
+    private static BroadcastReceiver powerSaveReceiver;
+
+    private boolean adaptive;
+    private boolean downgraded;
+    private int maxFrameRate;
+
+    private long frameIntervalNanos;
+    private long minFrameIntervalNanos;
+    private long lastFrameNanos;
+    private long lastDrawnFrameNanos;
+    private int missedFrames;
+
+    void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        downgraded = false;
+    }
+
+    boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @param maxFrameRate frames per second at most, 0 for the display refresh rate
+     */
+    void setMaxFrameRate(int maxFrameRate) {
+        this.maxFrameRate = maxFrameRate;
+    }
+
+    int getMaxFrameRate() {
+        return maxFrameRate;
+    }
+
+    /**
+     * @return true if the next transition should skip the pulses
+     */
+    boolean useReducedEffects() {
+        return adaptive && (downgraded || durationScale == 0 || powerSaveMode);
+    }
+
+    /**
+     * Prepares the frame budget for a transition drawn by {@code host}.
+     */
+    void onTransitionStarted(View host) {
+        float refreshRate = DEFAULT_REFRESH_RATE;
+        Display display = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 ? host.getDisplay() : null;
+        if (display != null && display.getRefreshRate() > 0) {
+            refreshRate = display.getRefreshRate();
+        }
+        frameIntervalNanos = (long) (1000000000L / refreshRate);
+        minFrameIntervalNanos = maxFrameRate > 0 && maxFrameRate < refreshRate
+                // half a display frame of slack so a 30 fps cap on 60 Hz skips every other frame
+                ? 1000000000L / maxFrameRate - frameIntervalNanos / 2 : 0;
+        lastFrameNanos = -1;
+        lastDrawnFrameNanos = -1;
+        missedFrames = 0;
+    }
+
+    /**
+     * Forgets the last frame times, so the gap of a paused transition is not taken for missed
+     * frames.
+     */
+    void onFramesResumed() {
+        lastFrameNanos = -1;
+        lastDrawnFrameNanos = -1;
+    }
+
+    /**
+     * Counts frames that arrived late and applies the frame-rate cap.
+     *
+     * @return true if the frame should be drawn
+     */
+    boolean onFrame(long frameTimeNanos) {
+        if (adaptive && lastFrameNanos >= 0
+                && frameTimeNanos - lastFrameNanos > frameIntervalNanos * MISSED_FRAME_FACTOR
+                && ++missedFrames >= MISSED_FRAMES_LIMIT) {
+            downgraded = true;
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        if (lastDrawnFrameNanos >= 0 && frameTimeNanos - lastDrawnFrameNanos < minFrameIntervalNanos) {
+            return false;
+        }
+        lastDrawnFrameNanos = frameTimeNanos;
+        return true;
+    }
+
+    /**
+     * @return true once missed frames switched the slider to reduced effects
+     */
+    boolean isDowngraded() {
+        return downgraded;
+    }
+
+    /**
+     * @return the system animator duration scale, 0 if animations are turned off
+     */
+    static float getDurationScale() {
+        return durationScale;
+    }
+
+    /**
+     * Reads the system settings again and follows power save mode until the last attached
+     * slider calls {@link #onSliderDetached(Context)}.
+     */
+    static void onSliderAttached(Context context) {
+        final Context appContext = context.getApplicationContext();
+        durationScale = readDurationScale(appContext);
+        if (attachedSliders++ == 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            // the receiver keeps the value current while it is registered
+            powerSaveMode = readPowerSaveMode(appContext);
+            powerSaveReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    powerSaveMode = readPowerSaveMode(appContext);
+                }
+            };
+            appContext.registerReceiver(powerSaveReceiver,
+                    new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        }
+    }
+
+    static void onSliderDetached(Context context) {
+        if (--attachedSliders == 0 && powerSaveReceiver != null) {
+            context.getApplicationContext().unregisterReceiver(powerSaveReceiver);
+            powerSaveReceiver = null;
+        }
+    }
+
+    private static float readDurationScale(Context context) {
+        ContentResolver resolver = context.getContentResolver();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        }
+        //noinspection deprecation
+        return Settings.System.getFloat(resolver, Settings.System.ANIMATOR_DURATION_SCALE, 1f);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static boolean readPowerSaveMode(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return false;
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+}
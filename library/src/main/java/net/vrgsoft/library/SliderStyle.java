@@ -0,0 +1,197 @@
+package net.vrgsoft.library;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Paint;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.widget.LinearLayout;
+
+import static net.vrgsoft.library.Slider.DEFAULT_ANIMATION_DURATION;
+
+/**
+ * Immutable look of a {@link Slider}. The slider resolves its styled attributes into one style
+ * and hands it to the track and the points, so inflation reads the attributes once however
+ * many points there are. Setters of the slider replace the style with a modified copy.
+ * <p>
+ * A style can be shared by any number of sliders, see {@link Slider#setStyle(SliderStyle)}.
+ * The sliders then keep only their position and animation state, colors, sizes and the paints
+ * they draw with live in the style once.
+ */
+public final class SliderStyle {
+    private final int pulseColor;
+    private final int outerColor;
+    private final int innerColor;
+    private final int outerLineColor;
+    private final int innerLineColor;
+    private final int pointSize;
+    private final int lineStrokeWidth;
+    private final int orientation;
+    private final long duration;
+
+    /**
+     * Scratch paints of every slider using this style and the styles derived from it. Colors
+     * and stroke widths are set right before each draw call, so they are only touched from the
+     * main thread.
+     */
+    final Paint fillPaint;
+    final Paint strokePaint;
+
+    /**
+     * @param attrs attributes of a {@link Slider} declaration or null for the defaults
+     * @return style to be shared by sliders with {@link Slider#setStyle(SliderStyle)}
+     */
+    public static SliderStyle from(Context context, @Nullable AttributeSet attrs) {
+        if (attrs == null) {
+            return new SliderStyle(context, null);
+        }
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.Slider);
+        SliderStyle style = new SliderStyle(context, a);
+        a.recycle();
+        return style;
+    }
+
+    /**
+     * @param a styled attributes of {@link R.styleable#Slider} or null for the defaults
+     */
+    SliderStyle(Context context, @Nullable TypedArray a) {
+        int defaultOuterLineColor = context.getResources().getColor(R.color.defaultOuterLineColor);
+        int defaultInnerLineColor = context.getResources().getColor(R.color.defaultInnerLineColor);
+        int defaultPulseColor = context.getResources().getColor(R.color.defaultPointPulseColor);
+        int defaultOuterColor = context.getResources().getColor(R.color.defaultPointOuterColor);
+        int defaultInnerColor = context.getResources().getColor(R.color.defaultPointInnerColor);
+        int defaultPointSize = context.getResources().getDimensionPixelSize(R.dimen.defaultPointSize);
+        int defaultLineStrokeWidth = context.getResources().getDimensionPixelSize(R.dimen.defaultLineHeight);
+
+        if (a != null) {
+            pulseColor = a.getColor(R.styleable.Slider_pointPulseColor, defaultPulseColor);
+            outerColor = a.getColor(R.styleable.Slider_pointOuterColor, defaultOuterColor);
+            innerColor = a.getColor(R.styleable.Slider_pointInnerColor, defaultInnerColor);
+            outerLineColor = a.getColor(R.styleable.Slider_lineOuterColor, defaultOuterLineColor);
+            innerLineColor = a.getColor(R.styleable.Slider_lineInnerColor, outerLineColor);
+            pointSize = a.getDimensionPixelSize(R.styleable.Slider_pointSize, defaultPointSize);
+            lineStrokeWidth = a.getDimensionPixelSize(R.styleable.Slider_lineStrokeWidth, defaultLineStrokeWidth);
+            orientation = a.getInt(R.styleable.Slider_android_orientation, LinearLayout.HORIZONTAL);
+            duration = a.getInt(R.styleable.Slider_animationDuration, (int) DEFAULT_ANIMATION_DURATION);
+        } else {
+            pulseColor = defaultPulseColor;
+            outerColor = defaultOuterColor;
+            innerColor = defaultInnerColor;
+            outerLineColor = defaultOuterLineColor;
+            innerLineColor = defaultInnerLineColor;
+            pointSize = defaultPointSize;
+            lineStrokeWidth = defaultLineStrokeWidth;
+            orientation = LinearLayout.HORIZONTAL;
+            duration = DEFAULT_ANIMATION_DURATION;
+        }
+
+        fillPaint = new Paint();
+        fillPaint.setAntiAlias(true);
+        fillPaint.setStyle(Paint.Style.FILL);
+        strokePaint = new Paint();
+        strokePaint.setAntiAlias(true);
+        strokePaint.setStyle(Paint.Style.STROKE);
+    }
+
+    private SliderStyle(SliderStyle source, int pulseColor, int outerColor, int innerColor, int outerLineColor,
+                        int innerLineColor, int pointSize, int lineStrokeWidth, int orientation, long duration) {
+        this.pulseColor = pulseColor;
+        this.outerColor = outerColor;
+        this.innerColor = innerColor;
+        this.outerLineColor = outerLineColor;
+        this.innerLineColor = innerLineColor;
+        this.pointSize = pointSize;
+        this.lineStrokeWidth = lineStrokeWidth;
+        this.orientation = orientation;
+        this.duration = duration;
+        fillPaint = source.fillPaint;
+        strokePaint = source.strokePaint;
+    }
+
+    public SliderStyle withPulseColor(@ColorInt int pulseColor) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withOuterColor(@ColorInt int outerColor) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withInnerColor(@ColorInt int innerColor) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withOuterLineColor(@ColorInt int outerLineColor) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withInnerLineColor(@ColorInt int innerLineColor) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withPointSize(int pointSize) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withLineStrokeWidth(int lineStrokeWidth) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withOrientation(int orientation) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    public SliderStyle withDuration(long duration) {
+        return new SliderStyle(this, pulseColor, outerColor, innerColor, outerLineColor, innerLineColor,
+                pointSize, lineStrokeWidth, orientation, duration);
+    }
+
+    @ColorInt
+    public int getPulseColor() {
+        return pulseColor;
+    }
+
+    @ColorInt
+    public int getOuterColor() {
+        return outerColor;
+    }
+
+    @ColorInt
+    public int getInnerColor() {
+        return innerColor;
+    }
+
+    @ColorInt
+    public int getOuterLineColor() {
+        return outerLineColor;
+    }
+
+    @ColorInt
+    public int getInnerLineColor() {
+        return innerLineColor;
+    }
+
+    public int getPointSize() {
+        return pointSize;
+    }
+
+    public int getLineStrokeWidth() {
+        return lineStrokeWidth;
+    }
+
+    public int getOrientation() {
+        return orientation;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+}
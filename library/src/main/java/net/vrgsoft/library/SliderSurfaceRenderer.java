@@ -0,0 +1,264 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.support.v4.os.TraceCompat;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+
+/**
+ * Draws a {@link Slider} into a {@link TextureView} from a render thread shared by all sliders
+ * in {@link Slider#RENDER_MODE_SURFACE}, so neither the frames of a transition nor drawing take
+ * time on the main thread.
+ * <p>
+ * The main thread only sends messages: positions, counts, the style, the renderers and the
+ * surface. Renderers are handed over to the render thread and only used there. The render
+ * thread keeps its own {@link SliderEngine} and {@link SliderCanvasRenderer}, advances the
+ * transition from a {@link Choreographer} of its own and redraws the whole surface once per
+ * frame, however many messages arrived in between.
+ */
+final class SliderSurfaceRenderer implements TextureView.SurfaceTextureListener, Handler.Callback,
+        Choreographer.FrameCallback {
+    private static final int MSG_SURFACE = 0;
+    private static final int MSG_SIZE = 1;
+    private static final int MSG_STYLE = 2;
+    private static final int MSG_POINTS_COUNT = 3;
+    private static final int MSG_VISIBLE_POINTS_COUNT = 4;
+    private static final int MSG_POSITION = 5;
+    private static final int MSG_JUMP = 6;
+    private static final int MSG_PROGRESS = 7;
+    private static final int MSG_PAUSE = 8;
+    private static final int MSG_FINISH = 9;
+    private static final int MSG_POINT_RENDERER = 10;
+    private static final int MSG_TRACK_RENDERER = 11;
+
+    private static HandlerThread renderThread;
+
+    private final Handler handler;
+
+    // everything below is only touched on the render thread
+    private final SliderEngine engine;
+    private final SliderCanvasRenderer renderer;
+    private Choreographer choreographer;
+    private SurfaceTexture surfaceTexture;
+    private Surface surface;
+    private long frameStartTime;
+    private boolean framePosted;
+    private boolean animating;
+    private boolean paused;
+    private boolean dirty;
+
+    SliderSurfaceRenderer(TextureView view, SliderStyle style, SliderPointRenderer pointRenderer,
+                          SliderTrackRenderer trackRenderer, int pointsCount, int visiblePointsCount) {
+        engine = new SliderEngine(pointsCount);
+        renderer = new SliderCanvasRenderer(null, engine, style);
+        renderer.setPointRenderer(pointRenderer);
+        renderer.setTrackRenderer(trackRenderer);
+        renderer.setPointsCount(pointsCount);
+        renderer.setVisiblePointsCount(visiblePointsCount);
+        handler = new Handler(getRenderLooper(), this);
+        view.setOpaque(false);
+        view.setSurfaceTextureListener(this);
+    }
+
+    private static synchronized Looper getRenderLooper() {
+        if (renderThread == null) {
+            renderThread = new HandlerThread("SliderRender", Process.THREAD_PRIORITY_DISPLAY);
+            renderThread.start();
+        }
+        return renderThread.getLooper();
+    }
+
+    void setStyle(SliderStyle style) {
+        handler.obtainMessage(MSG_STYLE, style).sendToTarget();
+    }
+
+    void setPointRenderer(SliderPointRenderer pointRenderer) {
+        handler.obtainMessage(MSG_POINT_RENDERER, pointRenderer).sendToTarget();
+    }
+
+    void setTrackRenderer(SliderTrackRenderer trackRenderer) {
+        handler.obtainMessage(MSG_TRACK_RENDERER, trackRenderer).sendToTarget();
+    }
+
+    void setPointsCount(int pointsCount) {
+        handler.obtainMessage(MSG_POINTS_COUNT, pointsCount, 0).sendToTarget();
+    }
+
+    void setVisiblePointsCount(int visiblePointsCount) {
+        handler.obtainMessage(MSG_VISIBLE_POINTS_COUNT, visiblePointsCount, 0).sendToTarget();
+    }
+
+    /**
+     * Starts a transition on the render thread, see {@link SliderEngine#setPosition(int, long)}.
+     */
+    void setPosition(int position, long duration, boolean reducedEffects) {
+        handler.obtainMessage(MSG_POSITION, position, (int) duration, reducedEffects).sendToTarget();
+    }
+
+    void jumpTo(int position) {
+        handler.obtainMessage(MSG_JUMP, position, 0).sendToTarget();
+    }
+
+    void setProgress(float progress) {
+        handler.obtainMessage(MSG_PROGRESS, Float.floatToIntBits(progress), 0).sendToTarget();
+    }
+
+    /**
+     * @param paused true to hold a running transition where it is until resumed
+     */
+    void setPaused(boolean paused) {
+        handler.obtainMessage(MSG_PAUSE, paused ? 1 : 0, 0).sendToTarget();
+    }
+
+    /**
+     * Jumps a running transition to its end, so the render thread has no frames left to draw.
+     */
+    void finish() {
+        handler.sendEmptyMessage(MSG_FINISH);
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        handler.obtainMessage(MSG_SURFACE, width, height, surface).sendToTarget();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        handler.obtainMessage(MSG_SIZE, width, height).sendToTarget();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        // released by the render thread once it stopped drawing into it
+        handler.obtainMessage(MSG_SURFACE, 0, 0, null).sendToTarget();
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        if (choreographer == null) {
+            choreographer = Choreographer.getInstance();
+        }
+
+        switch (msg.what) {
+            case MSG_SURFACE:
+                releaseSurface();
+                if (msg.obj != null) {
+                    surfaceTexture = (SurfaceTexture) msg.obj;
+                    surface = new Surface(surfaceTexture);
+                    renderer.onSizeChanged(msg.arg1, msg.arg2);
+                }
+                break;
+            case MSG_SIZE:
+                renderer.onSizeChanged(msg.arg1, msg.arg2);
+                break;
+            case MSG_STYLE:
+                renderer.setStyle((SliderStyle) msg.obj);
+                break;
+            case MSG_POINT_RENDERER:
+                renderer.setPointRenderer((SliderPointRenderer) msg.obj);
+                break;
+            case MSG_TRACK_RENDERER:
+                renderer.setTrackRenderer((SliderTrackRenderer) msg.obj);
+                break;
+            case MSG_POINTS_COUNT:
+                engine.setPointsCount(msg.arg1);
+                renderer.setPointsCount(msg.arg1);
+                break;
+            case MSG_VISIBLE_POINTS_COUNT:
+                renderer.setVisiblePointsCount(msg.arg1);
+                break;
+            case MSG_POSITION:
+                engine.setReducedEffects((Boolean) msg.obj);
+                engine.setPosition(msg.arg1, msg.arg2);
+                frameStartTime = -1;
+                animating = !engine.isFinished();
+                break;
+            case MSG_JUMP:
+                engine.jumpTo(msg.arg1);
+                animating = false;
+                break;
+            case MSG_PROGRESS:
+                engine.setProgress(Float.intBitsToFloat(msg.arg1));
+                animating = false;
+                break;
+            case MSG_PAUSE:
+                paused = msg.arg1 != 0;
+                // the next frame continues from the current elapsed time
+                frameStartTime = -1;
+                break;
+            case MSG_FINISH:
+                if (animating) {
+                    engine.setElapsed(engine.getTotalDuration());
+                    animating = false;
+                }
+                break;
+            default:
+                return false;
+        }
+        dirty = true;
+        scheduleFrame();
+        return true;
+    }
+
+    private void scheduleFrame() {
+        boolean needed = surface != null && !paused && (animating || dirty);
+        if (needed && !framePosted) {
+            framePosted = true;
+            choreographer.postFrameCallback(this);
+        } else if (!needed && framePosted) {
+            framePosted = false;
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        TraceCompat.beginSection("SliderSurfaceRenderer#doFrame");
+        framePosted = false;
+        if (animating) {
+            if (frameStartTime < 0) {
+                frameStartTime = frameTimeNanos - engine.getElapsed() * 1000000;
+            }
+            engine.setElapsed((frameTimeNanos - frameStartTime) / 1000000);
+            animating = !engine.isFinished();
+        }
+        draw();
+        dirty = false;
+        scheduleFrame();
+        TraceCompat.endSection();
+    }
+
+    private void draw() {
+        Canvas canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                ? surface.lockHardwareCanvas() : surface.lockCanvas(null);
+        try {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            renderer.draw(canvas);
+        } finally {
+            surface.unlockCanvasAndPost(canvas);
+        }
+    }
+
+    private void releaseSurface() {
+        if (surface == null) return;
+        surface.release();
+        surfaceTexture.release();
+        surface = null;
+        surfaceTexture = null;
+    }
+}
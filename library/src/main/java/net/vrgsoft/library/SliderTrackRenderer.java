@@ -0,0 +1,49 @@
+package net.vrgsoft.library;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws the track of a {@link Slider}, see {@link Slider#setTrackRenderer(SliderTrackRenderer)}.
+ * The default is {@link LineTrackRenderer}.
+ * <p>
+ * The track is a static guide from the first to the last point and the progress from the first
+ * point to the animated head. Paints, {@code Path}s and shaders are built in
+ * {@link #onGeometryChanged}, which runs before the first frame and again after every change of
+ * the style or the track bounds. Both draw methods run every frame unless the static layer cache
+ * is enabled and must not allocate, {@code SliderRendererAssert} in the {@code testing} module
+ * checks that in unit tests.
+ * <p>
+ * One instance draws the track of one slider. All methods are called on the thread that draws
+ * the slider, the render thread in {@link Slider#RENDER_MODE_SURFACE}.
+ */
+public interface SliderTrackRenderer {
+
+    /**
+     * Called when the style or the track bounds changed, may also be called again with the same
+     * values. Coordinates are in the canvas the track is drawn into.
+     *
+     * @param horizontal  true if the track runs along the x axis
+     * @param start       coordinate of the first point along the track
+     * @param end         coordinate of the last point along the track
+     * @param crossCenter coordinate of the track center across it
+     * @param thickness   line stroke width of the style in pixels, the track must stay within
+     *                    it across
+     */
+    void onGeometryChanged(SliderStyle style, boolean horizontal, float start, float end,
+                           float crossCenter, float thickness);
+
+    /**
+     * Draws the part that does not move, it may be drawn from a bitmap recorded once after
+     * {@link #onGeometryChanged}.
+     */
+    void drawGuide(Canvas canvas);
+
+    /**
+     * Draws the progress from the start of the track to the head. Only the part of the track
+     * between the previous and the new head is redrawn when the head moves, so what is drawn at
+     * a coordinate must not depend on where the head is.
+     *
+     * @param head coordinate of the head along the track, between start and end
+     */
+    void drawProgress(Canvas canvas, float head);
+}
@@ -0,0 +1,308 @@
+package net.vrgsoft.library;
+
+/**
+ * One transition between two positions expressed as a pure function of the elapsed time.
+ * Reproduces the animators of {@link SliderPoint} and {@link SliderBgLine}: the selected point
+ * grows for {@code duration} while its inner circle takes {@code 2 * duration}, every point
+ * passed over pulses once with a staggered delay, and the track moves linearly. On jumps over
+ * more than {@link #MAX_OVERLAPPING_PULSES} points the pulses get shorter, so at most that many
+ * run at once and the wave stays a band next to the track head.
+ * <p>
+ * A transition started while another one is running retargets it: the track continues from
+ * where it is, and pulses of the interrupted transition play to their end unless the new
+ * transition pulses the same point.
+ * <p>
+ * {@link #setProgress(float)} replaces the timed transition with a state that depends on the
+ * fractional position only.
+ * <p>
+ * With reduced effects only the track moves, no point pulses and the selected point shows its
+ * end state once the track arrives, so the transition lasts {@code duration} instead of
+ * {@code 2 * duration}.
+ */
+final class SliderTransition {
+    static final int MAX_OVERLAPPING_PULSES = 32;
+
+    private int fromPosition;
+    private int toPosition;
+    private float trackFrom;
+    private float trackTo;
+    private long duration;
+    private int transitCount;
+    // float, a jump over more steps than the duration has milliseconds still staggers its pulses
+    private float transitStep;
+    private float transitDuration;
+    private boolean started;
+    private boolean progressMode;
+    private boolean reducedEffects;
+    private float progress;
+
+    private int outgoingFrom;
+    private int outgoingTo;
+    private float outgoingTransitDuration;
+    private int outgoingTransitCount;
+    private float outgoingTransitStep;
+    private long outgoingOffset;
+
+    void start(int fromPosition, int toPosition, float trackFrom, float trackTo, long duration) {
+        start(fromPosition, toPosition, trackFrom, trackTo, duration, -1);
+    }
+
+    /**
+     * @param interruptedAt time of the running transition at which it is interrupted, -1 if
+     *                      there is nothing to retarget
+     */
+    void start(int fromPosition, int toPosition, float trackFrom, float trackTo, long duration,
+               long interruptedAt) {
+        if (started && !progressMode && interruptedAt >= 0 && interruptedAt < getTransitEnd()) {
+            outgoingFrom = this.fromPosition;
+            outgoingTo = this.toPosition;
+            outgoingTransitDuration = transitDuration;
+            outgoingTransitCount = transitCount;
+            outgoingTransitStep = transitStep;
+            outgoingOffset = interruptedAt;
+        } else {
+            outgoingTransitCount = 0;
+        }
+
+        this.fromPosition = fromPosition;
+        this.toPosition = toPosition;
+        this.trackFrom = trackFrom;
+        this.trackTo = trackTo;
+        this.duration = duration;
+        // without a duration nothing pulses, the end state shows right away
+        transitCount = reducedEffects || duration <= 0 ? 0 : Math.abs(toPosition - fromPosition) - 1;
+        transitStep = transitCount > 0 ? (float) duration / (transitCount + 2) : 0;
+        transitDuration = Math.min(duration, transitStep * MAX_OVERLAPPING_PULSES);
+        started = true;
+        progressMode = false;
+    }
+
+    /**
+     * Shows the track at the fractional position and blends the selection between the two
+     * nearest points. The state does not depend on the elapsed time.
+     *
+     * @param progress position in step units
+     */
+    void setProgress(float progress) {
+        this.progress = progress;
+        fromPosition = (int) Math.floor(progress);
+        toPosition = (int) Math.ceil(progress);
+        trackFrom = progress;
+        trackTo = progress;
+        duration = 0;
+        transitCount = 0;
+        transitStep = 0;
+        transitDuration = 0;
+        outgoingTransitCount = 0;
+        started = true;
+        progressMode = true;
+    }
+
+    /**
+     * Takes effect with the next {@link #start(int, int, float, float, long, long)}.
+     */
+    void setReducedEffects(boolean reducedEffects) {
+        this.reducedEffects = reducedEffects;
+    }
+
+    int getFromPosition() {
+        return fromPosition;
+    }
+
+    int getToPosition() {
+        return toPosition;
+    }
+
+    float getTrackFrom() {
+        return trackFrom;
+    }
+
+    long getDuration() {
+        return duration;
+    }
+
+    boolean isReducedEffects() {
+        return reducedEffects;
+    }
+
+    /**
+     * @return position set with {@link #setProgress(float)}, NaN while a timed transition is shown
+     */
+    float getProgress() {
+        return progressMode ? progress : Float.NaN;
+    }
+
+    /**
+     * @return time after which the state no longer changes
+     */
+    long getTotalDuration() {
+        long total = reducedEffects ? duration : duration * 2;
+        if (outgoingTransitCount > 0) {
+            long outgoingEnd = getTransitEnd(outgoingTransitCount, outgoingTransitStep, outgoingTransitDuration)
+                    - outgoingOffset;
+            total = Math.max(total, outgoingEnd);
+        }
+        return total;
+    }
+
+    private long getTransitEnd() {
+        return transitCount > 0 ? getTransitEnd(transitCount, transitStep, transitDuration) : 0;
+    }
+
+    /**
+     * @return time at which the pulse of the last passed point ended
+     */
+    private static long getTransitEnd(int count, float step, float duration) {
+        return (long) Math.ceil(count * step + duration);
+    }
+
+    /**
+     * @return lowest position whose state may change during this transition
+     */
+    int getFirstAnimatedPoint() {
+        int first = Math.min(fromPosition, toPosition);
+        if (outgoingTransitCount > 0) {
+            first = Math.min(first, Math.min(outgoingFrom, outgoingTo));
+        }
+        return first;
+    }
+
+    /**
+     * @return highest position whose state may change during this transition
+     */
+    int getLastAnimatedPoint() {
+        int last = Math.max(fromPosition, toPosition);
+        if (outgoingTransitCount > 0) {
+            last = Math.max(last, Math.max(outgoingFrom, outgoingTo));
+        }
+        return last;
+    }
+
+    /**
+     * Writes the lowest and the highest position passed over by this transition that pulses at
+     * {@code time} into {@code range}, the first is greater than the last if there is none. At
+     * most {@link #MAX_OVERLAPPING_PULSES} points pulse at once, the range may include a few idle
+     * points next to them.
+     */
+    void getPulsingPoints(long time, int[] range) {
+        getPulsingPoints(fromPosition, toPosition, transitCount, transitStep, transitDuration, time, range);
+    }
+
+    /**
+     * Like {@link #getPulsingPoints(long, int[])} for the pulses of the interrupted transition,
+     * which are still playing.
+     */
+    void getOutgoingPulsingPoints(long time, int[] range) {
+        getPulsingPoints(outgoingFrom, outgoingTo, outgoingTransitCount, outgoingTransitStep,
+                outgoingTransitDuration, outgoingOffset + time, range);
+    }
+
+    private static void getPulsingPoints(int from, int to, int count, float step, float duration, long time,
+                                         int[] range) {
+        range[0] = Integer.MAX_VALUE;
+        range[1] = -1;
+        if (count <= 0 || time < 0) return;
+
+        // the pulse of the i-th passed point runs from i * step for duration, both bounds are
+        // widened by a step against rounding
+        int first = 1;
+        int last = count;
+        if (step > 0) {
+            first = Math.max(first, (int) Math.floor((time - duration) / step));
+            last = Math.min(last, (int) Math.floor(time / step) + 1);
+        }
+        if (first > last) return;
+        range[0] = to > from ? from + first : from - last;
+        range[1] = to > from ? from + last : from - first;
+    }
+
+    float getTrackPosition(long elapsed) {
+        if (!started) return trackTo;
+        float value = fraction(elapsed, duration);
+        // exact at the end, so a finished transition sits on its step
+        return value >= 1 ? trackTo : trackFrom + value * (trackTo - trackFrom);
+    }
+
+    /**
+     * Writes the state of the point at {@code index} into {@code out}. Geometry radii of
+     * {@code out} must already be set.
+     */
+    void getPointState(int index, long elapsed, PointState out) {
+        out.reset();
+        if (!started) return;
+
+        if (progressMode) {
+            float selection = 1 - Math.abs(progress - index);
+            if (selection > 0) {
+                out.pulseRadius = selection * out.endPulseRadius;
+            }
+            return;
+        }
+
+        if (index == toPosition && reducedEffects) {
+            if (elapsed >= duration) {
+                out.pulseRadius = out.endPulseRadius;
+            }
+            return;
+        }
+
+        if (index == toPosition) {
+            float value = fraction(elapsed, duration);
+            out.pulseRadius = out.startPulseRadius + value * out.pulseGrowth;
+            out.outerRadius = out.startOuterRadius + value * out.outerGrowth;
+            if (elapsed < duration) {
+                value = SliderEasing.lookup(SliderEasing.ACCELERATE, value);
+                out.innerRadius = out.startInnerRadius + value * out.innerGrowth;
+            } else {
+                value = SliderEasing.lookup(SliderEasing.DECELERATE_2, fraction(elapsed - duration, duration));
+                out.innerRadius = out.middleInnerRadius + value * out.innerShrink;
+            }
+            return;
+        }
+
+        float localTime = getTransitTime(index, fromPosition, toPosition, transitCount, transitStep,
+                transitDuration, elapsed);
+        if (localTime >= 0) {
+            applyTransit(localTime, transitDuration, out);
+            return;
+        }
+
+        if (outgoingTransitCount > 0 && index != outgoingTo) {
+            localTime = getTransitTime(index, outgoingFrom, outgoingTo, outgoingTransitCount,
+                    outgoingTransitStep, outgoingTransitDuration, outgoingOffset + elapsed);
+            if (localTime >= 0) {
+                applyTransit(localTime, outgoingTransitDuration, out);
+            }
+        }
+    }
+
+    /**
+     * @return time since the pulse of the point started or -1 if it is not pulsing
+     */
+    private static float getTransitTime(int index, int from, int to, int count, float step, float duration,
+                                       long elapsed) {
+        int transitIndex = to > from ? index - from : from - index;
+        if (transitIndex < 1 || transitIndex > count) return -1;
+
+        float localTime = elapsed - transitIndex * step;
+        return localTime < 0 || localTime >= duration ? -1 : localTime;
+    }
+
+    private static void applyTransit(float localTime, float duration, PointState out) {
+        float value = SliderEasing.decelerate(fraction(localTime, duration));
+        out.pulseAlpha = (int) ((1 - value) * 255);
+        out.pulseRadius = out.endOuterRadius + value * out.transitGrowth;
+    }
+
+    private static float fraction(long time, long duration) {
+        if (duration <= 0 || time >= duration) return 1f;
+        if (time <= 0) return 0f;
+        return (float) time / duration;
+    }
+
+    private static float fraction(float time, float duration) {
+        if (duration <= 0 || time >= duration) return 1f;
+        if (time <= 0) return 0f;
+        return time / duration;
+    }
+}
@@ -0,0 +1,39 @@
+package net.vrgsoft.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit test for the easing tables used by {@link SliderTransition}.
+ */
+public class SliderEasingTest {
+    private static final int SAMPLES = 10000;
+    private static final float TOLERANCE = 0.0005f;
+
+    @Test
+    public void accelerate_matchesCurve() throws Exception {
+        for (int i = 0; i <= SAMPLES; i++) {
+            float input = (float) i / SAMPLES;
+            assertEquals("input " + input, Math.pow(input, 2.4),
+                    SliderEasing.lookup(SliderEasing.ACCELERATE, input), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void decelerate2_matchesCurve() throws Exception {
+        for (int i = 0; i <= SAMPLES; i++) {
+            float input = (float) i / SAMPLES;
+            assertEquals("input " + input, 1 - Math.pow(1 - input, 4),
+                    SliderEasing.lookup(SliderEasing.DECELERATE_2, input), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void lookup_keepsExactEnds() throws Exception {
+        assertEquals(0f, SliderEasing.lookup(SliderEasing.ACCELERATE, 0f), 0f);
+        assertEquals(1f, SliderEasing.lookup(SliderEasing.ACCELERATE, 1f), 0f);
+        assertEquals(0f, SliderEasing.lookup(SliderEasing.DECELERATE_2, -0.5f), 0f);
+        assertEquals(1f, SliderEasing.lookup(SliderEasing.DECELERATE_2, 1.5f), 0f);
+    }
+}
@@ -0,0 +1,242 @@
+package net.vrgsoft.library;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit test for the headless engine behind both render modes.
+ */
+public class SliderEngineTest {
+    private static final long DURATION = 500;
+    private static final long FRAME_TIME = 16;
+
+    @Test
+    public void initialState_selectsNothing() throws Exception {
+        SliderEngine engine = new SliderEngine(5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.isIdle(i));
+        }
+        assertEquals(0, engine.getTrackPosition(), 0f);
+    }
+
+    @Test
+    public void transition_endsAtTarget() throws Exception {
+        SliderEngine engine = new SliderEngine(5);
+        engine.jumpTo(0);
+        engine.setPosition(3, DURATION);
+        engine.setElapsed(engine.getTotalDuration());
+
+        assertTrue(engine.isFinished());
+        assertEquals(3, engine.getTrackPosition(), 0f);
+        assertEquals(0.44f, engine.getPulseRadii()[3], 0.0001f);
+        assertEquals(0.26f, engine.getOuterRadii()[3], 0.0001f);
+        assertEquals(0.11f, engine.getInnerRadii()[3], 0.0001f);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(engine.isIdle(i));
+        }
+    }
+
+    @Test
+    public void frames_touchOnlyAnimatedPoints() throws Exception {
+        SliderEngine engine = new SliderEngine(100000);
+        engine.jumpTo(50000);
+        engine.setPosition(50003, DURATION);
+        for (long elapsed = 0; elapsed <= engine.getTotalDuration(); elapsed += FRAME_TIME) {
+            engine.setElapsed(elapsed);
+            if (engine.getFirstChangedPoint() <= engine.getLastChangedPoint()) {
+                assertTrue(engine.getFirstChangedPoint() >= 50000);
+                assertTrue(engine.getLastChangedPoint() <= 50003);
+            }
+        }
+    }
+
+    @Test
+    public void positionChanges_doNotAllocate() throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        SliderEngine engine = new SliderEngine(100);
+        engine.jumpTo(0);
+
+        // warm up so the measured loop runs compiled code
+        runPositionChanges(engine, 2000);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        float checksum = runPositionChanges(engine, 200);
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("allocated bytes, checksum " + checksum, 0, allocated);
+    }
+
+    @Test
+    public void longJump_visitsOnlyPulsingPoints() throws Exception {
+        int count = 100000;
+        SliderEngine engine = new SliderEngine(count);
+        engine.jumpTo(0);
+        engine.setPosition(count - 1, DURATION);
+
+        SliderTransition expected = new SliderTransition();
+        expected.start(0, count - 1, 0, count - 1, DURATION);
+        PointState state = new PointState();
+        state.setSize(1);
+        for (long elapsed = 0; elapsed <= engine.getTotalDuration(); elapsed += FRAME_TIME) {
+            engine.setElapsed(elapsed);
+            // both selected points and two bands of pulses, widened by a step on each side
+            assertTrue("visited " + engine.getVisitedPoints(),
+                    engine.getVisitedPoints() <= 2 * (2 + 2 * (SliderTransition.MAX_OVERLAPPING_PULSES + 4)));
+
+            for (int i = 0; i < count; i++) {
+                expected.getPointState(i, elapsed, state);
+                assertEquals(state.pulseRadius, engine.getPulseRadii()[i], 0f);
+                assertEquals(state.pulseAlpha, engine.getPulseAlphas()[i]);
+                assertEquals(state.outerRadius, engine.getOuterRadii()[i], 0f);
+                assertEquals(state.innerRadius, engine.getInnerRadii()[i], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void longJump_withoutDuration_visitsSelectedPoints() throws Exception {
+        int count = 100000;
+        SliderEngine engine = new SliderEngine(count);
+        engine.jumpTo(0);
+        engine.setPosition(count - 1, 0);
+
+        // the points selected before and after, nothing pulses
+        assertTrue("visited " + engine.getVisitedPoints(), engine.getVisitedPoints() <= 4);
+        assertTrue(engine.isFinished());
+        assertEquals(count - 1, engine.getTrackPosition(), 0f);
+        assertTrue(engine.isIdle(0));
+        assertTrue(engine.isIdle(count / 2));
+        assertTrue(!engine.isIdle(count - 1));
+
+        engine.setElapsed(0);
+        assertTrue("visited " + engine.getVisitedPoints(), engine.getVisitedPoints() <= 4);
+    }
+
+    @Test
+    public void longJump_retargetVisitsOnlyPulsingPoints() throws Exception {
+        int count = 100000;
+        int target = count / 4;
+        long interruptedAt = DURATION / 2;
+        SliderEngine engine = new SliderEngine(count);
+        engine.jumpTo(0);
+        engine.setPosition(count - 1, DURATION);
+        engine.setElapsed(interruptedAt);
+        float trackPosition = engine.getTrackPosition();
+        engine.setPosition(target, DURATION);
+        // before and after: the selected points, the band and the outgoing band
+        int maxVisited = 2 * (2 + 2 * (SliderTransition.MAX_OVERLAPPING_PULSES + 4));
+        assertTrue("visited " + engine.getVisitedPoints(), engine.getVisitedPoints() <= maxVisited);
+
+        SliderTransition expected = new SliderTransition();
+        expected.start(0, count - 1, 0, count - 1, DURATION);
+        expected.start(count - 1, target, trackPosition, target, DURATION, interruptedAt);
+        PointState state = new PointState();
+        state.setSize(1);
+        for (long elapsed = 0; elapsed <= engine.getTotalDuration(); elapsed += FRAME_TIME) {
+            engine.setElapsed(elapsed);
+            assertTrue("visited " + engine.getVisitedPoints(), engine.getVisitedPoints() <= maxVisited);
+
+            for (int i = 0; i < count; i++) {
+                expected.getPointState(i, elapsed, state);
+                assertEquals(state.pulseRadius, engine.getPulseRadii()[i], 0f);
+                assertEquals(state.pulseAlpha, engine.getPulseAlphas()[i]);
+                assertEquals(state.outerRadius, engine.getOuterRadii()[i], 0f);
+                assertEquals(state.innerRadius, engine.getInnerRadii()[i], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void restore_continuesTransition() throws Exception {
+        SliderEngine engine = new SliderEngine(6);
+        engine.jumpTo(1);
+        engine.setPosition(4, DURATION);
+        engine.setElapsed(DURATION / 3);
+
+        SliderEngine restored = new SliderEngine(6);
+        restored.restore(engine.getFromPosition(), engine.getPosition(), engine.getTrackFrom(),
+                engine.getDuration(), engine.getElapsed());
+        for (long elapsed = engine.getElapsed(); elapsed <= engine.getTotalDuration(); elapsed += FRAME_TIME) {
+            engine.setElapsed(elapsed);
+            restored.setElapsed(elapsed);
+            assertEquals(engine.getTrackPosition(), restored.getTrackPosition(), 0f);
+            for (int i = 0; i < 6; i++) {
+                assertEquals(engine.getPulseRadii()[i], restored.getPulseRadii()[i], 0f);
+                assertEquals(engine.getOuterRadii()[i], restored.getOuterRadii()[i], 0f);
+                assertEquals(engine.getInnerRadii()[i], restored.getInnerRadii()[i], 0f);
+                assertEquals(engine.getPulseAlphas()[i], restored.getPulseAlphas()[i]);
+            }
+        }
+        restored.setElapsed(engine.getTotalDuration());
+        assertTrue(restored.isFinished());
+        assertEquals(4, restored.getTrackPosition(), 0f);
+    }
+
+    @Test
+    public void simulation_matchesTransition() throws Exception {
+        int pointsCount = 8;
+        SliderEngine engine = new SliderEngine(pointsCount);
+        SliderTransition reference = new SliderTransition();
+        PointState state = new PointState();
+        state.setSize(1);
+
+        Random random = new Random(42);
+        int position = 0;
+        long elapsed = 0;
+        engine.jumpTo(0);
+        reference.start(0, 0, 0, 0, 0);
+        for (int step = 0; step < 2000; step++) {
+            int target = random.nextInt(pointsCount);
+            float trackFrom = reference.getTrackPosition(elapsed);
+            engine.setPosition(target, DURATION);
+            reference.start(position, target, trackFrom, target, DURATION, elapsed);
+            position = target;
+
+            // interrupt about half of the transitions
+            long end = random.nextBoolean() ? reference.getTotalDuration() : random.nextInt((int) DURATION);
+            for (elapsed = 0; elapsed <= end; elapsed += FRAME_TIME) {
+                engine.setElapsed(elapsed);
+                assertEquals(reference.getTrackPosition(elapsed), engine.getTrackPosition(), 0f);
+                for (int i = 0; i < pointsCount; i++) {
+                    reference.getPointState(i, elapsed, state);
+                    String message = "step " + step + " point " + i + " at " + elapsed;
+                    assertEquals(message, state.pulseRadius, engine.getPulseRadii()[i], 0f);
+                    assertEquals(message, state.outerRadius, engine.getOuterRadii()[i], 0f);
+                    assertEquals(message, state.innerRadius, engine.getInnerRadii()[i], 0f);
+                    assertEquals(message, state.pulseAlpha, engine.getPulseAlphas()[i]);
+                }
+            }
+            elapsed -= FRAME_TIME;
+        }
+    }
+
+    /**
+     * A steady stream of changes, each retargeting the running transition a few frames in.
+     */
+    private static float runPositionChanges(SliderEngine engine, int count) {
+        float checksum = 0;
+        int pointsCount = engine.getPointsCount();
+        for (int i = 0; i < count; i++) {
+            int target = (i * 37) % pointsCount;
+            engine.setPosition(target, DURATION);
+            for (long elapsed = 0; elapsed <= 4 * FRAME_TIME; elapsed += FRAME_TIME) {
+                engine.setElapsed(elapsed);
+                checksum += engine.getTrackPosition() + engine.getFirstChangedPoint() + engine.getLastChangedPoint();
+            }
+        }
+        return checksum;
+    }
+}
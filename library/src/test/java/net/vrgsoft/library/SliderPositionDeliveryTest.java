@@ -0,0 +1,234 @@
+package net.vrgsoft.library;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit test for listeners called on an executor.
+ */
+public class SliderPositionDeliveryTest {
+    private static final int POINTS_COUNT = 8;
+    private static final int BURST = 100;
+
+    private QueueExecutor executor;
+    private List<Integer> delivered;
+
+    @Before
+    public void setUp() {
+        executor = new QueueExecutor();
+        delivered = Collections.synchronizedList(new ArrayList<Integer>());
+    }
+
+    @Test
+    public void latest_collapsesBurst() throws Exception {
+        SliderPositionDelivery delivery = new SliderPositionDelivery(new RecordingListener(), executor,
+                Slider.DELIVERY_LATEST, 0);
+        burst(delivery);
+        executor.runAll();
+
+        assertEquals(1, delivered.size());
+        assertEquals((BURST - 1) % POINTS_COUNT, (int) delivered.get(0));
+    }
+
+    @Test
+    public void everyChange_deliversAll() throws Exception {
+        SliderPositionDelivery delivery = new SliderPositionDelivery(new RecordingListener(), executor,
+                Slider.DELIVERY_EVERY_CHANGE, 0);
+        burst(delivery);
+        assertEquals(1, executor.queue.size());
+        executor.runAll();
+
+        assertEquals(BURST - 1, delivered.size());
+        for (int i = 1; i < BURST; i++) {
+            assertEquals(i % POINTS_COUNT, (int) delivered.get(i - 1));
+        }
+    }
+
+    @Test
+    public void everyChange_doesNotOverlapOnPool() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        SliderPositionDelivery delivery = new SliderPositionDelivery(new Slider.OnPointClickListener() {
+            @Override
+            public void onPointClick(int position) {
+                if (!running.compareAndSet(false, true)) {
+                    overlapped.set(true);
+                }
+                delivered.add(position);
+                Thread.yield();
+                running.set(false);
+            }
+        }, pool, Slider.DELIVERY_EVERY_CHANGE, 0);
+
+        int changes = 10000;
+        for (int i = 0; i < changes; i++) {
+            delivery.onPositionChanged(i);
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (delivered.size() < changes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(overlapped.get());
+        assertEquals(changes, delivered.size());
+        for (int i = 0; i < changes; i++) {
+            assertEquals(i, (int) delivered.get(i));
+        }
+    }
+
+    @Test
+    public void throttled_boundsCallbacks() throws Exception {
+        FakeTimer timer = new FakeTimer();
+        SliderPositionDelivery delivery = new SliderPositionDelivery(new RecordingListener(), executor,
+                Slider.DELIVERY_THROTTLED, 10, timer);
+        // a change every 20 ms for 200 ms
+        for (int i = 0; i < 10; i++) {
+            delivery.onPositionChanged((i + 1) % POINTS_COUNT);
+            executor.runAll();
+            timer.advance(20);
+            executor.runAll();
+        }
+        timer.advance(100);
+        executor.runAll();
+
+        // at 0, 100 and 200 ms
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    public void cancel_dropsQueued() throws Exception {
+        SliderPositionDelivery delivery = new SliderPositionDelivery(new RecordingListener(), executor,
+                Slider.DELIVERY_EVERY_CHANGE, 0);
+        burst(delivery);
+        delivery.cancel();
+        executor.runAll();
+
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void rejectedCallback_isDroppedAndRetried() throws Exception {
+        RejectingExecutor rejecting = new RejectingExecutor();
+        SliderPositionDelivery everyChange = new SliderPositionDelivery(new RecordingListener(), rejecting,
+                Slider.DELIVERY_EVERY_CHANGE, 0);
+        SliderPositionDelivery latest = new SliderPositionDelivery(new RecordingListener(), rejecting,
+                Slider.DELIVERY_LATEST, 0);
+
+        rejecting.rejecting = true;
+        everyChange.onPositionChanged(1);
+        latest.onPositionChanged(2);
+        assertTrue(delivered.isEmpty());
+
+        rejecting.rejecting = false;
+        everyChange.onPositionChanged(3);
+        latest.onPositionChanged(4);
+        rejecting.runAll();
+
+        assertEquals(2, delivered.size());
+        assertTrue(delivered.contains(3));
+        assertTrue(delivered.contains(4));
+    }
+
+    private static void burst(SliderPositionDelivery delivery) {
+        for (int i = 1; i < BURST; i++) {
+            delivery.onPositionChanged(i % POINTS_COUNT);
+        }
+    }
+
+    private class RecordingListener implements Slider.OnPointClickListener {
+        @Override
+        public void onPointClick(int position) {
+            delivered.add(position);
+        }
+    }
+
+    /**
+     * Runs submitted callbacks only when asked, like a busy background thread.
+     */
+    private static class QueueExecutor implements Executor {
+        final ArrayList<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    /**
+     * Rejects callbacks while asked to, like a pool that was shut down.
+     */
+    private static class RejectingExecutor extends QueueExecutor {
+        boolean rejecting;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting) throw new RejectedExecutionException();
+            super.execute(command);
+        }
+    }
+
+    /**
+     * Main thread clock that only moves when the test advances it.
+     */
+    private static class FakeTimer implements SliderPositionDelivery.Timer {
+        private final ArrayList<Runnable> posted = new ArrayList<>();
+        private final ArrayList<Long> times = new ArrayList<>();
+        private long now;
+
+        @Override
+        public long uptimeMillis() {
+            return now;
+        }
+
+        @Override
+        public void postDelayed(Runnable runnable, long delayMillis) {
+            posted.add(runnable);
+            times.add(now + delayMillis);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable runnable) {
+            for (int i = posted.size() - 1; i >= 0; i--) {
+                if (posted.get(i) == runnable) {
+                    posted.remove(i);
+                    times.remove(i);
+                }
+            }
+        }
+
+        void advance(long millis) {
+            now += millis;
+            for (int i = 0; i < posted.size(); ) {
+                if (times.get(i) <= now) {
+                    times.remove(i);
+                    posted.remove(i).run();
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package net.vrgsoft.library;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit test for the frame path shared by both render modes.
+ */
+public class SliderTransitionTest {
+    private static final int POINTS_COUNT = 8;
+    private static final long DURATION = 500;
+    private static final long FRAME_TIME = 16;
+
+    @Test
+    public void frames_doNotAllocate() throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        SliderTransition transition = new SliderTransition();
+        PointState state = new PointState();
+        state.setSize(100);
+
+        // warm up so the measured loop runs compiled code
+        runTransitions(transition, state, 2000);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        float checksum = runTransitions(transition, state, 200);
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("allocated bytes, checksum " + checksum, 0, allocated);
+    }
+
+    @Test
+    public void retarget_keepsInterruptedPulses() throws Exception {
+        SliderTransition transition = new SliderTransition();
+        PointState state = new PointState();
+        state.setSize(100);
+
+        // 0 -> 4 pulses points 1..3, point 1 starts pulsing at 100 ms
+        transition.start(0, 4, 0, 4, DURATION);
+        long interruptedAt = 200;
+        transition.getPointState(1, interruptedAt, state);
+        float pulseRadius = state.pulseRadius;
+        float trackPosition = transition.getTrackPosition(interruptedAt);
+
+        // 4 -> 5 does not pass point 1, its pulse continues from where it was
+        transition.start(4, 5, trackPosition, 5, DURATION, interruptedAt);
+        transition.getPointState(1, 0, state);
+        assertEquals(pulseRadius, state.pulseRadius, 0.001f);
+        assertEquals(trackPosition, transition.getTrackPosition(0), 0.001f);
+        assertEquals(0, transition.getFirstAnimatedPoint());
+        assertEquals(5, transition.getLastAnimatedPoint());
+
+        transition.getPointState(1, transition.getTotalDuration(), state);
+        assertTrue(state.isIdle());
+    }
+
+    @Test
+    public void longJump_staggersPulses() throws Exception {
+        SliderTransition transition = new SliderTransition();
+        PointState state = new PointState();
+        state.setSize(100);
+
+        // 999 passed points, less than a millisecond apart
+        transition.start(0, 1000, 0, 1000, DURATION);
+        transition.getPointState(1, 1, state);
+        assertTrue(!state.isIdle());
+
+        // halfway the pulses are a band in the middle, the first ones ended, the last ones wait
+        long halfway = DURATION / 2;
+        int first = -1;
+        int last = -1;
+        for (int point = 1; point < 1000; point++) {
+            transition.getPointState(point, halfway, state);
+            if (!state.isIdle()) {
+                if (first < 0) first = point;
+                last = point;
+            }
+        }
+        assertTrue("first pulsing " + first, first > 400);
+        assertTrue("last pulsing " + last, last < 600);
+        assertTrue("pulsing " + first + ".." + last, last - first < SliderTransition.MAX_OVERLAPPING_PULSES);
+
+        transition.getPointState(999, DURATION, state);
+        assertTrue(!state.isIdle());
+    }
+
+    @Test
+    public void reducedEffects_skipPulses() throws Exception {
+        SliderTransition transition = new SliderTransition();
+        transition.setReducedEffects(true);
+        PointState state = new PointState();
+        state.setSize(100);
+
+        transition.start(0, 4, 0, 4, DURATION);
+        assertEquals(DURATION, transition.getTotalDuration());
+        for (long elapsed = 0; elapsed <= DURATION; elapsed += FRAME_TIME) {
+            for (int point = 1; point < 4; point++) {
+                transition.getPointState(point, elapsed, state);
+                assertTrue(state.isIdle());
+            }
+        }
+
+        transition.getPointState(4, DURATION - 1, state);
+        assertTrue(state.isIdle());
+        transition.getPointState(4, DURATION, state);
+        assertEquals(state.endPulseRadius, state.pulseRadius, 0f);
+        assertEquals(state.endInnerRadius, state.innerRadius, 0f);
+    }
+
+    private static float runTransitions(SliderTransition transition, PointState state, int count) {
+        float checksum = 0;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            int target = (position + 1 + i % (POINTS_COUNT - 1)) % POINTS_COUNT;
+            transition.start(position, target, transition.getTrackPosition(FRAME_TIME), target, DURATION);
+            position = target;
+
+            for (long elapsed = 0; elapsed <= transition.getTotalDuration(); elapsed += FRAME_TIME) {
+                checksum += transition.getTrackPosition(elapsed);
+                for (int point = 0; point < POINTS_COUNT; point++) {
+                    transition.getPointState(point, elapsed, state);
+                    checksum += state.pulseRadius + state.outerRadius + state.innerRadius + state.pulseAlpha;
+                }
+            }
+        }
+        return checksum;
+    }
+}
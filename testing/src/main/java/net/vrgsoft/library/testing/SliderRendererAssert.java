@@ -0,0 +1,143 @@
+package net.vrgsoft.library.testing;
+
+import android.graphics.Canvas;
+
+import net.vrgsoft.library.SliderEngine;
+import net.vrgsoft.library.SliderPointRenderer;
+import net.vrgsoft.library.SliderStyle;
+import net.vrgsoft.library.SliderTrackRenderer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Checks that a {@link SliderPointRenderer} or a {@link SliderTrackRenderer} keeps its contract
+ * of not allocating per frame. The renderer draws every frame of a transition across a slider
+ * twice: the first pass may create whatever the renderer keeps, the second pass must not
+ * allocate at all.
+ * <p>
+ * Allocations are counted by the JVM, so the checks run in local unit tests, with Robolectric
+ * for the graphics classes, and not on a device.
+ */
+public final class SliderRendererAssert {
+    private static final int POINTS_COUNT = 8;
+    private static final long FRAME_MILLIS = 16;
+
+    private SliderRendererAssert() {
+    }
+
+    /**
+     * @param style style the renderer draws with, also gives the point size
+     * @throws AssertionError if drawing the points of a transition allocated
+     */
+    public static void assertNoAllocations(SliderPointRenderer renderer, SliderStyle style) {
+        int pointSize = style.getPointSize();
+        renderer.onGeometryChanged(style, pointSize);
+        Frames frames = new Frames(style);
+        Canvas canvas = new NullCanvas();
+
+        frames.drawPoints(renderer, canvas);
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+        before = allocatedBytes();
+        frames.drawPoints(renderer, canvas);
+        check(renderer, allocatedBytes() - before - overhead, frames.count);
+    }
+
+    /**
+     * @param style style the renderer draws with, also gives the point size and the thickness
+     * @throws AssertionError if drawing the track of a transition allocated
+     */
+    public static void assertNoAllocations(SliderTrackRenderer renderer, SliderStyle style) {
+        int pointSize = style.getPointSize();
+        renderer.onGeometryChanged(style, true, pointSize * 0.5f, pointSize * (POINTS_COUNT - 0.5f),
+                pointSize * 0.5f, style.getLineStrokeWidth());
+        Frames frames = new Frames(style);
+        Canvas canvas = new NullCanvas();
+
+        frames.drawTrack(renderer, canvas);
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+        before = allocatedBytes();
+        frames.drawTrack(renderer, canvas);
+        check(renderer, allocatedBytes() - before - overhead, frames.count);
+    }
+
+    private static void check(Object renderer, long bytes, int frames) {
+        if (bytes > 0) {
+            throw new AssertionError(String.format(Locale.US,
+                    "%s allocated %d bytes in %d frames, create objects in onGeometryChanged instead",
+                    renderer.getClass().getName(), bytes, frames));
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        throw new IllegalStateException("This JVM does not count allocated bytes per thread");
+    }
+
+    /**
+     * Every frame of a transition from the first to the last point of a horizontal slider, taken
+     * from a {@link SliderEngine} up front so replaying them only calls the renderer.
+     */
+    private static final class Frames {
+        final int count;
+        final float pointSize;
+        final float[] pulseRadii;
+        final int[] pulseAlphas;
+        final float[] outerRadii;
+        final float[] innerRadii;
+        final float[] heads;
+
+        Frames(SliderStyle style) {
+            pointSize = style.getPointSize();
+            SliderEngine engine = new SliderEngine(POINTS_COUNT);
+            engine.setPosition(POINTS_COUNT - 1, style.getDuration());
+            long total = engine.getTotalDuration();
+            count = (int) ((total + FRAME_MILLIS - 1) / FRAME_MILLIS) + 1;
+
+            pulseRadii = new float[count * POINTS_COUNT];
+            pulseAlphas = new int[count * POINTS_COUNT];
+            outerRadii = new float[count * POINTS_COUNT];
+            innerRadii = new float[count * POINTS_COUNT];
+            heads = new float[count];
+            for (int frame = 0; frame < count; frame++) {
+                engine.setElapsed(Math.min(frame * FRAME_MILLIS, total));
+                for (int i = 0; i < POINTS_COUNT; i++) {
+                    int index = frame * POINTS_COUNT + i;
+                    pulseRadii[index] = engine.getPulseRadii()[i] * pointSize;
+                    pulseAlphas[index] = engine.getPulseAlphas()[i];
+                    outerRadii[index] = engine.getOuterRadii()[i] * pointSize;
+                    innerRadii[index] = engine.getInnerRadii()[i] * pointSize;
+                }
+                heads[frame] = pointSize * (engine.getTrackPosition() + 0.5f);
+            }
+        }
+
+        void drawPoints(SliderPointRenderer renderer, Canvas canvas) {
+            float center = pointSize * 0.5f;
+            for (int frame = 0; frame < count; frame++) {
+                for (int i = 0; i < POINTS_COUNT; i++) {
+                    int index = frame * POINTS_COUNT + i;
+                    renderer.drawPoint(canvas, center + i * pointSize, center, pulseRadii[index],
+                            pulseAlphas[index], outerRadii[index], innerRadii[index]);
+                }
+            }
+        }
+
+        void drawTrack(SliderTrackRenderer renderer, Canvas canvas) {
+            for (int frame = 0; frame < count; frame++) {
+                renderer.drawGuide(canvas);
+                renderer.drawProgress(canvas, heads[frame]);
+            }
+        }
+    }
+}